@@ -0,0 +1,395 @@
+package cecs544.metrics.bench;
+
+import cecs544.metrics.ComplexityClassifier;
+import cecs544.metrics.FpCache;
+import cecs544.metrics.FunctionPointEngine;
+import cecs544.metrics.JsonMini;
+import cecs544.metrics.ProjectModel;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput + allocation benchmarks for JsonMini, ProjectModel round-trips and FP computation.
+ *
+ * JMH-style loop (warmup iterations, timed measurement iterations, results fed to a sink) with
+ * per-op allocation taken from the thread allocation counter, like {@code -prof gc}. Each
+ * benchmark runs in its own JVM (JMH's fork), so none is measured under the profile left by the
+ * ones before it; {@code --forks 0} runs them all in this JVM instead. Primitive results go to
+ * their own sink overloads, so the harness does not box and its allocation stays out of B/op.
+ * Results go to a JSON file so runs can be diffed before upgrades.
+ *
+ * Usage: MetricsBench [--out results.json] [--filter regex] [--warmup 3] [--iterations 5] [--time 1000] [--forks 1]
+ */
+public final class MetricsBench {
+
+    private static volatile long sink;
+
+    private static final String CHILD = "--child";
+    private static final String SCORE_PREFIX = "#score ";
+
+    /** One measured operation; it passes its result to a {@code consume} overload so the work cannot be dropped. */
+    interface Op {
+        void run() throws Exception;
+    }
+
+    /** {@code setup} builds the fixtures and returns the measured op; only called for selected benchmarks. */
+    private record Bench(String name, Supplier<Op> setup) {}
+
+    private record Score(String name, double mean, double error, double allocBytesPerOp, double[] iterations) {}
+
+    public static void main(String[] args) throws Exception {
+        Path out = Paths.get("bench-results.json");
+        Pattern filter = Pattern.compile(".*");
+        int warmup = 3, iterations = 5, forks = 1;
+        long timeMs = 1000;
+        String child = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--filter" -> filter = Pattern.compile(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--time" -> timeMs = Long.parseLong(args[++i]);
+                case "--forks" -> forks = Integer.parseInt(args[++i]);
+                case CHILD -> child = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (child != null) {
+            // forked run of one benchmark: the parent reads the score from stdout
+            for (Bench b : benchmarks()) {
+                if (!b.name().equals(child)) continue;
+                Score s = measure(b.name(), b.setup().get(), warmup, iterations, timeMs);
+                System.out.println(SCORE_PREFIX + encode(s));
+                return;
+            }
+            throw new IllegalArgumentException("Unknown benchmark: " + child);
+        }
+
+        List<Score> scores = new ArrayList<>();
+        for (Bench b : benchmarks()) {
+            if (!filter.matcher(b.name()).find()) continue;
+            Score s = forks == 0
+                    ? measure(b.name(), b.setup().get(), warmup, iterations, timeMs)
+                    : fork(b.name(), forks, warmup, iterations, timeMs);
+            System.out.printf("%-40s %,14.1f ops/s  +- %,10.1f  %,12.0f B/op%n",
+                    s.name(), s.mean(), s.error(), s.allocBytesPerOp());
+            scores.add(s);
+        }
+        writeResults(out, scores, warmup, iterations, timeMs, forks);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    // ----- fixtures -----
+
+    private static final int LARGE_COUNT = 10_000;
+    private static final int FUNCTIONS = 1_000_000;
+
+    // built on first use, so a filtered run only pays for the fixtures its benchmarks need
+    private static ProjectModel small;
+    private static List<ProjectModel> projects;
+    private static List<Object> portfolio;
+    private static String largeJson;
+
+    private static ProjectModel small() {
+        if (small == null) small = sampleProject(1);
+        return small;
+    }
+
+    private static List<ProjectModel> projects() {
+        if (projects == null) {
+            projects = new ArrayList<>(LARGE_COUNT);
+            for (int i = 0; i < LARGE_COUNT; i++) projects.add(sampleProject(i));
+        }
+        return projects;
+    }
+
+    private static List<Object> portfolio() {
+        if (portfolio == null) {
+            portfolio = new ArrayList<>(LARGE_COUNT);
+            for (ProjectModel m : projects()) portfolio.add(JsonMini.parse(m.toJson()));
+        }
+        return portfolio;
+    }
+
+    private static String largeJson() {
+        if (largeJson == null) largeJson = JsonMini.stringify(portfolio());
+        return largeJson;
+    }
+
+    private static List<ProjectModel.FPState> states() {
+        List<ProjectModel.FPState> states = new ArrayList<>(LARGE_COUNT);
+        for (ProjectModel m : projects()) states.add(m.fpState);
+        return states;
+    }
+
+    private static List<Bench> benchmarks() {
+        return List.of(
+                new Bench("json.parse.small", () -> {
+                    String json = small().toJson();
+                    return () -> consume(JsonMini.parse(json));
+                }),
+                new Bench("json.parse.large", () -> {
+                    String json = largeJson();
+                    return () -> consume(JsonMini.parse(json));
+                }),
+                new Bench("json.parseStream.large", () -> {
+                    String json = largeJson();
+                    return () -> consume(JsonMini.parse(new StringReader(json)));
+                }),
+                new Bench("json.stringify.small", () -> {
+                    String json = small().toJson();
+                    return () -> consume(JsonMini.stringify(JsonMini.parse(json)));
+                }),
+                new Bench("json.stringify.large", () -> {
+                    List<Object> maps = portfolio();
+                    return () -> consume(JsonMini.stringify(maps));
+                }),
+                new Bench("project.toJson.small", () -> {
+                    ProjectModel m = small();
+                    return () -> consume(m.toJson());
+                }),
+                new Bench("project.fromJson.small", () -> {
+                    String json = small().toJson();
+                    return () -> consume(ProjectModel.fromJson(json));
+                }),
+                new Bench("project.roundTrip.small", () -> {
+                    ProjectModel m = small();
+                    return () -> consume(ProjectModel.fromJson(m.toJson()));
+                }),
+                new Bench("project.roundTrip.large", () -> {
+                    // every project through the ProjectModel writer and schema decoder, one document each
+                    List<ProjectModel> models = projects();
+                    return () -> {
+                        ProjectModel last = null;
+                        for (ProjectModel m : models) last = ProjectModel.fromJson(m.toJson());
+                        consume(last);
+                    };
+                }),
+                new Bench("fp.compute.single", () -> {
+                    ProjectModel.FPState s = small().fpState;
+                    FunctionPointEngine.Result r = new FunctionPointEngine.Result();
+                    return () -> consume(FunctionPointEngine.compute(s, r).fp);
+                }),
+                new Bench("fp.computeAll.10k", () -> {
+                    List<ProjectModel.FPState> states = states();
+                    int n = states.size();
+                    int[] tw = new int[n], vs = new int[n];
+                    double[] fp = new double[n], loc = new double[n];
+                    return () -> {
+                        FunctionPointEngine.computeAll(states, tw, vs, fp, loc);
+                        consume(fp[n - 1]);
+                    };
+                }),
+                new Bench("fp.computeColumns.10k", () -> {
+                    // same states laid out as columns for the bulk kernel
+                    List<ProjectModel.FPState> states = states();
+                    int n = states.size();
+                    int[][] counts = new int[FunctionPointEngine.ITEMS][n], cx = new int[FunctionPointEngine.ITEMS][n];
+                    int[] vafSums = new int[n], langIds = new int[n];
+                    long[] ufp = new long[n], fp100 = new long[n], loc100 = new long[n];
+                    for (int j = 0; j < n; j++) {
+                        ProjectModel.FPState s = states.get(j);
+                        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+                            counts[i][j] = Math.max(s.counts[i], 0);
+                            cx[i][j] = FunctionPointEngine.normalizeComplexity(s.complexities[i]);
+                        }
+                        vafSums[j] = FunctionPointEngine.vafSum(s.vafValues);
+                        langIds[j] = FunctionPointEngine.languageId(s.language);
+                    }
+                    return () -> {
+                        FunctionPointEngine.computeColumns(n, counts, cx, vafSums, langIds, ufp, fp100, loc100);
+                        consume(fp100[n - 1]);
+                    };
+                }),
+                new Bench("fp.classify.1M", () -> {
+                    // raw DET / RET-FTR counts for the complexity classifier
+                    int[] fnTypes = new int[FUNCTIONS], fnDets = new int[FUNCTIONS], fnRefs = new int[FUNCTIONS], fnCx = new int[FUNCTIONS];
+                    Random fnRnd = new Random(7);
+                    for (int i = 0; i < FUNCTIONS; i++) {
+                        fnTypes[i] = fnRnd.nextInt(FunctionPointEngine.ITEMS);
+                        fnDets[i] = 1 + fnRnd.nextInt(80);
+                        fnRefs[i] = fnRnd.nextInt(8);
+                    }
+                    return () -> consume(ComplexityClassifier.classify(FUNCTIONS, fnTypes, fnDets, fnRefs, fnCx, null));
+                }),
+                new Bench("fp.formatted.single", () -> {
+                    ProjectModel.FPState s = small().fpState;
+                    FunctionPointEngine.Result r = new FunctionPointEngine.Result();
+                    return () -> {
+                        FunctionPointEngine.compute(s, r);
+                        consume(String.format("%.1f", r.fp) + String.format("%.0f", r.loc));
+                    };
+                }),
+                new Bench("fpcache.formatted.single", () -> {
+                    ProjectModel.FPState s = small().fpState;
+                    FpCache cache = new FpCache("bench.fpcache", FpCache.DEFAULT_CAPACITY);
+                    return () -> {
+                        FpCache.Value v = cache.get(s, s.language);
+                        consume(v.fpText() + v.locText());
+                    };
+                })
+        );
+    }
+
+    private static ProjectModel sampleProject(int seed) {
+        Random rnd = new Random(seed);
+        String[] langs = {"Java", "C++", "C#", "Python", "Ruby", "Objective-C"};
+        ProjectModel m = ProjectModel.newEmpty("Project " + seed, "Creator " + (seed % 50));
+        m.language = langs[seed % langs.length];
+
+        ProjectModel.FPState s = new ProjectModel.FPState();
+        s.language = m.language;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            s.counts[i] = rnd.nextInt(200);
+            s.complexities[i] = rnd.nextInt(3);
+        }
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) s.vafValues[k] = rnd.nextInt(6);
+        s.totalWeighted = FunctionPointEngine.totalWeighted(s.counts, s.complexities);
+        s.vafSum = FunctionPointEngine.vafSum(s.vafValues);
+        s.fpFormatted = String.format("%,.1f", FunctionPointEngine.functionPoints(s.totalWeighted, s.vafSum));
+        m.fpState = s;
+        return m;
+    }
+
+    // ----- harness -----
+
+    private static Score measure(String name, Op op, int warmup, int iterations, long timeMs) throws Exception {
+        for (int i = 0; i < warmup; i++) runIteration(op, timeMs);
+
+        double[] opsPerSec = new double[iterations];
+        long ops = 0, allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long before = allocatedBytes();
+            long[] res = runIteration(op, timeMs);
+            allocated += allocatedBytes() - before;
+            ops += res[0];
+            opsPerSec[i] = res[0] * 1e9 / res[1];
+        }
+        return score(name, opsPerSec, ops == 0 ? 0 : (double) allocated / ops);
+    }
+
+    private static Score score(String name, double[] opsPerSec, double allocBytesPerOp) {
+        double mean = Arrays.stream(opsPerSec).average().orElse(0);
+        double var = 0;
+        for (double v : opsPerSec) var += (v - mean) * (v - mean);
+        double stddev = opsPerSec.length > 1 ? Math.sqrt(var / (opsPerSec.length - 1)) : 0;
+        return new Score(name, mean, stddev, allocBytesPerOp, opsPerSec);
+    }
+
+    /** Runs {@code name} in {@code forks} fresh JVMs (same java, classpath and JVM flags) and pools their iterations. */
+    private static Score fork(String name, int forks, int warmup, int iterations, long timeMs) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        double[] opsPerSec = new double[forks * iterations];
+        double alloc = 0;
+        for (int f = 0; f < forks; f++) {
+            List<String> cmd = new ArrayList<>();
+            cmd.add(java);
+            cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            cmd.addAll(List.of("-cp", System.getProperty("java.class.path"), MetricsBench.class.getName(),
+                    CHILD, name, "--warmup", String.valueOf(warmup), "--iterations", String.valueOf(iterations),
+                    "--time", String.valueOf(timeMs)));
+            Process p = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+            Score s = null;
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    if (line.startsWith(SCORE_PREFIX)) s = decode(line.substring(SCORE_PREFIX.length()));
+                }
+            }
+            int exit = p.waitFor();
+            if (exit != 0 || s == null) throw new IOException("Forked run of " + name + " failed (exit " + exit + ")");
+            System.arraycopy(s.iterations(), 0, opsPerSec, f * iterations, iterations);
+            alloc += s.allocBytesPerOp() / forks;
+        }
+        return score(name, opsPerSec, alloc);
+    }
+
+    // "<alloc B/op> <ops/s of each iteration>..." (doubles round-trip exactly through toString/parseDouble)
+    private static String encode(Score s) {
+        StringBuilder sb = new StringBuilder().append(s.allocBytesPerOp());
+        for (double v : s.iterations()) sb.append(' ').append(v);
+        return sb.toString();
+    }
+
+    private static Score decode(String line) {
+        String[] parts = line.trim().split(" ");
+        double[] opsPerSec = new double[parts.length - 1];
+        for (int i = 0; i < opsPerSec.length; i++) opsPerSec[i] = Double.parseDouble(parts[i + 1]);
+        return score(null, opsPerSec, Double.parseDouble(parts[0]));
+    }
+
+    /** Returns {operations, elapsed nanos}. */
+    private static long[] runIteration(Op op, long timeMs) throws Exception {
+        long deadline = System.nanoTime() + timeMs * 1_000_000L;
+        long start = System.nanoTime();
+        long ops = 0;
+        long now;
+        do {
+            op.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new long[] {ops, now - start};
+    }
+
+    private static void consume(Object o) {
+        sink += System.identityHashCode(o);
+    }
+
+    private static void consume(long v) {
+        sink += v;
+    }
+
+    private static void consume(double v) {
+        sink += Double.doubleToRawLongBits(v);
+    }
+
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hs) {
+            return hs.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static void writeResults(Path out, List<Score> scores, int warmup, int iterations, long timeMs, int forks)
+            throws IOException {
+        try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            JsonMini.Generator g = JsonMini.newGenerator(w);
+            g.beginObject();
+            g.name("timestamp").value(java.time.Instant.now().toString());
+            g.name("jvm").value(System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+            g.name("processors").value(Runtime.getRuntime().availableProcessors());
+            g.name("warmupIterations").value(warmup);
+            g.name("measurementIterations").value(iterations);
+            g.name("iterationMillis").value(timeMs);
+            g.name("forks").value(forks);
+            g.name("benchmarks").beginArray();
+            for (Score s : scores) {
+                g.beginObject();
+                g.name("benchmark").value(s.name());
+                g.name("mode").value("thrpt");
+                g.name("unit").value("ops/s");
+                g.name("score").value(s.mean());
+                g.name("scoreError").value(s.error());
+                g.name("allocBytesPerOp").value(s.allocBytesPerOp());
+                g.name("iterations").beginArray();
+                for (double v : s.iterations()) g.value(v);
+                g.endArray();
+                g.endObject();
+            }
+            g.endArray();
+            g.endObject();
+            g.flush();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+@echo off
+rem Builds the app and an AppCDS archive (metrics-suite.jsa) from one training run.
+rem The training run opens the main window briefly, touches menus, dialogs and the FP tab, then exits.
+cd /d "%~dp0.."
+if exist out\cds rmdir /s /q out\cds
+dir /s /b src\*.java > out-sources.txt
+javac -d out\cds @out-sources.txt || exit /b 1
+del out-sources.txt
+java -XX:ArchiveClassesAtExit=metrics-suite.jsa -cp out\cds cecs544.metrics.App --cds-training
@@ -0,0 +1,9 @@
+#!/bin/sh
+# Builds the app and an AppCDS archive (metrics-suite.jsa) from one training run.
+# The training run opens the main window briefly, touches menus, dialogs and the FP tab, then exits.
+set -e
+cd "$(dirname "$0")/.."
+OUT=out/cds
+rm -rf "$OUT"
+javac -d "$OUT" $(find src -name '*.java')
+java -XX:ArchiveClassesAtExit=metrics-suite.jsa -cp "$OUT" cecs544.metrics.App --cds-training
@@ -0,0 +1,4 @@
+@echo off
+rem Starts the app with the class-data-sharing archive from cds-train.cmd (ignored if missing or stale).
+cd /d "%~dp0.."
+java -XX:SharedArchiveFile=metrics-suite.jsa -Xshare:auto -Dcecs544.startup.report=true -cp out\cds cecs544.metrics.App %*
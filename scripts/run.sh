@@ -0,0 +1,5 @@
+#!/bin/sh
+# Starts the app with the class-data-sharing archive from cds-train.sh (ignored if missing or stale).
+cd "$(dirname "$0")/.."
+exec java -XX:SharedArchiveFile=metrics-suite.jsa -Xshare:auto -Dcecs544.startup.report=true \
+    -cp out/cds cecs544.metrics.App "$@"
@@ -1,16 +1,73 @@
 package cecs544.metrics;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 
 public class App {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        long mainStart = System.nanoTime();
+
+        // headless modes
+        if (args.length > 0 && args[0].equals("--scan")) {
+            PortfolioScanner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            FpServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--import-csv")) {
+            CsvImporter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--index")) {
+            ProjectIndex.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // class-data-sharing training run (see scripts/cds-train.*)
+        boolean training = args.length > 0 && args[0].equals("--cds-training");
+
+        EdtWatchdog.install();
+
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception ignored) {}
 
             MainFrame frame = new MainFrame();
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    // queued behind the first paint: the frame is up and the EDT is free again
+                    SwingUtilities.invokeLater(() -> {
+                        reportStartup(mainStart, training);
+                        if (training) {
+                            frame.warmUp();
+                            frame.dispose();
+                            System.exit(0);
+                        }
+                        SwingUtilities.invokeLater(frame::prebuildDialogs);
+                    });
+                }
+            });
             frame.setVisible(true);
         });
     }
+
+    // Time to first interactive frame, from main() and (when the OS reports it) from process start.
+    private static void reportStartup(long mainStart, boolean print) {
+        long sinceMain = System.nanoTime() - mainStart;
+        Metrics.histogram("startup.firstFrame").record(sinceMain);
+
+        if (print || Boolean.getBoolean("cecs544.startup.report")) {
+            String sinceProcess = ProcessHandle.current().info().startInstant()
+                    .map(t -> Duration.between(t, Instant.now()).toMillis() + " ms since process start, ")
+                    .orElse("");
+            System.err.println("First interactive frame: " + sinceProcess + sinceMain / 1_000_000 + " ms since main");
+        }
+    }
 }
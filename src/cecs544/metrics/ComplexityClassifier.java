@@ -0,0 +1,100 @@
+package cecs544.metrics;
+
+/**
+ * Derives IFPUG complexity (0 Simple / 1 Average / 2 Complex) from raw counts:
+ * DET x RET for ILF/EIF, DET x FTR for EI/EO/EQ.
+ *
+ * <pre>
+ *   ILF/EIF   RET 1 | 2-5 | 6+     DET 1-19 | 20-50 | 51+
+ *   EI        FTR 0-1 | 2 | 3+     DET 1-4  | 5-15  | 16+
+ *   EO/EQ     FTR 0-1 | 2-3 | 4+   DET 1-5  | 6-19  | 20+
+ *
+ *                 low DET   mid DET   high DET
+ *   low RET/FTR   Simple    Simple    Average
+ *   mid RET/FTR   Simple    Average   Complex
+ *   high RET/FTR  Average   Complex   Complex
+ * </pre>
+ *
+ * Every (type, RET/FTR, DET) combination is precomputed into one flat table; counts are clamped
+ * to the last threshold, so a lookup is two min/max, one multiply-add and one load.
+ */
+public final class ComplexityClassifier {
+
+    public static final int EI = 0, EO = 1, EQ = 2, ILF = 3, EIF = 4; // FP_ITEMS order
+
+    private static final int DET_CAP = 51; // first DET value of the highest ILF/EIF band
+    private static final int REF_CAP = 6;  // first RET value of the highest ILF/EIF band
+    private static final int DET_SPAN = DET_CAP + 1;
+    private static final int TYPE_SPAN = (REF_CAP + 1) * DET_SPAN;
+
+    private static final byte[] COMPLEXITY = new byte[FunctionPointEngine.ITEMS * TYPE_SPAN];
+    private static final byte[] WEIGHT = new byte[FunctionPointEngine.ITEMS * TYPE_SPAN];
+
+    // band lower bounds per type: {mid, high}
+    private static final int[][] DET_BANDS = {{5, 16}, {6, 20}, {6, 20}, {20, 51}, {20, 51}};
+    private static final int[][] REF_BANDS = {{2, 3}, {2, 4}, {2, 4}, {2, 6}, {2, 6}};
+    private static final int[][] MATRIX = {{0, 0, 1}, {0, 1, 2}, {1, 2, 2}};
+
+    static {
+        for (int type = 0; type < FunctionPointEngine.ITEMS; type++) {
+            for (int ref = 0; ref <= REF_CAP; ref++) {
+                for (int det = 0; det <= DET_CAP; det++) {
+                    int cx = MATRIX[band(ref, REF_BANDS[type])][band(det, DET_BANDS[type])];
+                    int idx = type * TYPE_SPAN + ref * DET_SPAN + det;
+                    COMPLEXITY[idx] = (byte) cx;
+                    WEIGHT[idx] = (byte) FunctionPointEngine.weight(type, cx);
+                }
+            }
+        }
+    }
+
+    private ComplexityClassifier() {}
+
+    private static int band(int v, int[] bounds) {
+        return v >= bounds[1] ? 2 : v >= bounds[0] ? 1 : 0;
+    }
+
+    private static int index(int type, int det, int ref) {
+        return type * TYPE_SPAN
+                + Math.min(Math.max(ref, 0), REF_CAP) * DET_SPAN
+                + Math.min(Math.max(det, 0), DET_CAP);
+    }
+
+    /** {@code ref} is RETs for ILF/EIF and FTRs for EI/EO/EQ. */
+    public static int complexity(int type, int det, int ref) {
+        return COMPLEXITY[index(type, det, ref)];
+    }
+
+    public static int weight(int type, int det, int ref) {
+        return WEIGHT[index(type, det, ref)];
+    }
+
+    /**
+     * Classifies {@code n} functions (types in FP_ITEMS order). {@code complexityOut} and/or
+     * {@code weightOut} may be null. Returns the total weight (UFP) of the batch.
+     */
+    public static long classify(int n, int[] types, int[] dets, int[] refs, int[] complexityOut, int[] weightOut) {
+        long ufp = 0;
+        for (int i = 0; i < n; i++) {
+            int idx = index(types[i], dets[i], refs[i]);
+            if (complexityOut != null) complexityOut[i] = COMPLEXITY[idx];
+            int w = WEIGHT[idx];
+            if (weightOut != null) weightOut[i] = w;
+            ufp += w;
+        }
+        return ufp;
+    }
+
+    /** Same-type variant: one transaction or file type for the whole batch. */
+    public static long classify(int type, int n, int[] dets, int[] refs, int[] complexityOut) {
+        if (type < 0 || type >= FunctionPointEngine.ITEMS) throw new IllegalArgumentException("Unknown function type: " + type);
+        int base = type * TYPE_SPAN;
+        long ufp = 0;
+        for (int i = 0; i < n; i++) {
+            int idx = base + Math.min(Math.max(refs[i], 0), REF_CAP) * DET_SPAN + Math.min(Math.max(dets[i], 0), DET_CAP);
+            complexityOut[i] = COMPLEXITY[idx];
+            ufp += WEIGHT[idx];
+        }
+        return ufp;
+    }
+}
@@ -0,0 +1,539 @@
+package cecs544.metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Bulk import of FP data from CSV exports, one row per (project, category):
+ * <pre>
+ *   project,category,count,complexity[,vaf1,...,vaf14]
+ * </pre>
+ * Category is EI/EO/EQ/ILF/EIF (or the full FP_ITEMS name), complexity is Simple/Average/Complex,
+ * S/A/C, Low/High or 0-2, and may be empty. VAF columns are optional and may be empty. Fields may be
+ * double-quoted; quoted fields cannot span lines. A first line whose count is not a number is
+ * treated as a header.
+ *
+ * Rows for the same project are merged: counts add up per category, while complexity and each
+ * VAF value take the last non-empty value in file order. Negative counts are malformed rows; a
+ * merged count too large for the project's UFP to fit an int is reported and saturates at
+ * {@link #MAX_COUNT}.
+ *
+ * The file is memory-mapped in chunks split at line boundaries and parsed in parallel straight
+ * from the mapped bytes; the only objects created per project (not per row or cell) are its key
+ * bytes and accumulator. Projects come back in order of first appearance.
+ */
+public class CsvImporter {
+
+    private static final long CHUNK = 64L << 20;
+    private static final int MAX_ERRORS = 20;
+
+    /** Largest merged count per category: five categories at this count and Complex weight still fit an int UFP. */
+    public static final int MAX_COUNT;
+    static {
+        int maxWeights = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) maxWeights += FunctionPointEngine.weight(i, 2);
+        MAX_COUNT = Integer.MAX_VALUE / maxWeights;
+    }
+
+    private static final byte[][] CATEGORY_CODES = bytes("ei", "eo", "eq", "ilf", "eif");
+    private static final String[] CATEGORY_LABELS = {"EI", "EO", "EQ", "ILF", "EIF"};
+    private static final byte[][] CATEGORY_NAMES = bytes(
+            "external inputs", "external outputs", "external inquiries", "internal logical files", "external interface files");
+    private static final byte[][] COMPLEXITY_WORDS = bytes("simple", "average", "complex", "low", "high", "s", "a", "c");
+    private static final int[] COMPLEXITY_VALUES = {0, 1, 2, 0, 2, 0, 1, 2};
+
+    /** Import outcome: projects in order of first appearance plus row statistics. */
+    public static final class Result {
+        public final LinkedHashMap<String, ProjectModel.FPState> projects = new LinkedHashMap<>();
+        public long rows;
+        public long skipped;
+        public long bytes;
+        public final List<String> errors = new ArrayList<>();
+        public long elapsedNanos;
+    }
+
+    private final int threads;
+
+    public CsvImporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        boolean binary = rest.remove("--binary");
+        if (rest.size() < 2) {
+            System.err.println("Usage: CsvImporter <file.csv> <output directory> [threads] [--binary]");
+            System.exit(2);
+        }
+        Path csv = Paths.get(rest.get(0));
+        Path outDir = Paths.get(rest.get(1));
+        int threads = rest.size() > 2 ? Integer.parseInt(rest.get(2)) : Runtime.getRuntime().availableProcessors();
+
+        Result r = new CsvImporter(threads).importFile(csv);
+        for (String e : r.errors) System.err.println(csv + ": " + e);
+
+        Files.createDirectories(outDir);
+        Set<String> used = new HashSet<>();
+        for (Map.Entry<String, ProjectModel.FPState> e : r.projects.entrySet()) {
+            ProjectModel m = ProjectModel.newEmpty(e.getKey(), "Unknown");
+            m.fpState = e.getValue();
+            m.save(outDir.resolve(fileName(e.getKey(), used)), binary);
+        }
+
+        double secs = r.elapsedNanos / 1e9;
+        System.err.printf("Imported %,d rows (%,d skipped) into %,d projects in %.2f s (%,.0f MB/s)%n",
+                r.rows, r.skipped, r.projects.size(), secs, r.bytes / 1e6 / Math.max(secs, 1e-9));
+    }
+
+    // project names can hold anything; keep file names portable and unique
+    private static String fileName(String project, Set<String> used) {
+        String base = project.replaceAll("[^A-Za-z0-9._ -]", "_").trim();
+        if (base.isEmpty()) base = "project";
+        String name = base;
+        for (int k = 2; !used.add(name.toLowerCase()); k++) name = base + " (" + k + ")";
+        return name + ".ms";
+    }
+
+    public Result importFile(Path csv) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Result result = new Result();
+
+        try (FileChannel ch = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = ch.size();
+            result.bytes = size;
+            long[] bounds = splitAtLines(ch, size, Math.max(CHUNK / 16, Math.min(CHUNK, size / (threads * 4L) + 1)));
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "csv-import");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<Chunk>> parts = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i], to = bounds[i + 1];
+                    boolean first = i == 0;
+                    parts.add(pool.submit(() -> new Chunk(from, first).parse(ch.map(FileChannel.MapMode.READ_ONLY, from, to - from))));
+                }
+
+                ProjectTable merged = new ProjectTable();
+                for (Future<Chunk> f : parts) {
+                    Chunk c = f.get();
+                    result.rows += c.rows;
+                    result.skipped += c.skipped;
+                    for (String e : c.errors) {
+                        if (result.errors.size() < MAX_ERRORS) result.errors.add(e);
+                    }
+                    merged.mergeAll(c.table);
+                }
+                merged.emit(result);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException io) throw io;
+                throw new IOException("CSV import failed: " + cause, cause);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /** Chunk start offsets (plus the file size) such that every chunk begins at a line start. */
+    private static long[] splitAtLines(FileChannel ch, long size, long chunk) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = chunk;
+        while (pos < size) {
+            // move pos to just after the next newline
+            long p = pos;
+            boolean found = false;
+            while (!found && p < size) {
+                probe.clear();
+                int n = ch.read(probe, p);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        p += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) p += n;
+            }
+            if (p >= size) break;
+            bounds.add(p);
+            pos = p + chunk;
+        }
+        bounds.add(size);
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = bounds.get(i);
+        return out;
+    }
+
+    // ----- per-chunk parsing -----
+
+    private static final class Chunk {
+        final long base;
+        final boolean firstChunk;
+        final ProjectTable table = new ProjectTable();
+        final List<String> errors = new ArrayList<>();
+        long rows, skipped;
+
+        // field slices of the current line: [start, end) into the buffer
+        final int[] fs = new int[32];
+        final int[] fe = new int[32];
+        final boolean[] fq = new boolean[32]; // quoted with "" escapes inside
+        byte[] scratch = new byte[256];
+
+        Chunk(long base, boolean firstChunk) {
+            this.base = base;
+            this.firstChunk = firstChunk;
+        }
+
+        Chunk parse(MappedByteBuffer buf) {
+            int limit = buf.limit();
+            int pos = 0;
+            boolean header = firstChunk;
+            while (pos < limit) {
+                int lineStart = pos;
+                int nf;
+                try {
+                    nf = splitLine(buf, pos, limit);
+                } catch (IllegalArgumentException ex) {
+                    error(lineStart, ex.getMessage());
+                    pos = nextLine(buf, pos, limit);
+                    header = false;
+                    continue;
+                }
+                pos = nextLine(buf, pos, limit);
+                if (nf == 1 && fs[0] == fe[0]) continue; // blank line
+
+                if (header) {
+                    header = false;
+                    if (nf > 2 && !isInteger(buf, 2) && !isNegative(buf, 2)) continue;
+                }
+                if (nf < 3) {
+                    error(lineStart, "expected project,category,count[,complexity,vaf...]");
+                    continue;
+                }
+                int category = category(buf);
+                if (category < 0) {
+                    error(lineStart, "unknown category");
+                    continue;
+                }
+                if (!isInteger(buf, 2)) {
+                    error(lineStart, isNegative(buf, 2) ? "count is negative" : "count is not a whole number");
+                    continue;
+                }
+                int complexity = nf > 3 ? complexity(buf) : -1;
+                if (complexity == -2) {
+                    error(lineStart, "unknown complexity");
+                    continue;
+                }
+
+                long offset = base + lineStart;
+                ProjectTable.Acc acc = table.lookup(buf, fs[0], fe[0], fq[0], this, offset);
+                acc.counts[category] += parseInt(buf, fs[2], fe[2]);
+                if (complexity >= 0 && offset >= acc.cxOffset[category]) {
+                    acc.complexities[category] = complexity;
+                    acc.cxOffset[category] = offset;
+                }
+                for (int k = 0; k < FunctionPointEngine.VAF_FACTORS && 4 + k < nf; k++) {
+                    int f = 4 + k;
+                    if (fs[f] == fe[f]) continue;
+                    if (!isInteger(buf, f)) continue;
+                    int v = parseInt(buf, fs[f], fe[f]);
+                    if (v < 0 || v > 5 || offset < acc.vafOffset[k]) continue;
+                    acc.vafValues[k] = v;
+                    acc.vafOffset[k] = offset;
+                }
+                rows++;
+            }
+            return this;
+        }
+
+        private void error(int lineStart, String msg) {
+            skipped++;
+            if (errors.size() < MAX_ERRORS) errors.add("byte " + (base + lineStart) + ": " + msg);
+        }
+
+        private static int nextLine(ByteBuffer buf, int pos, int limit) {
+            while (pos < limit && buf.get(pos) != '\n') pos++;
+            return pos + 1;
+        }
+
+        /** Fills fs/fe/fq for the line at pos; returns the number of fields. */
+        private int splitLine(ByteBuffer buf, int pos, int limit) {
+            int n = 0;
+            while (true) {
+                if (n == fs.length) throw new IllegalArgumentException("too many columns");
+                if (pos < limit && buf.get(pos) == '"') {
+                    int s = ++pos;
+                    boolean escaped = false;
+                    while (true) {
+                        if (pos >= limit || buf.get(pos) == '\n') throw new IllegalArgumentException("unterminated quote");
+                        if (buf.get(pos) == '"') {
+                            if (pos + 1 < limit && buf.get(pos + 1) == '"') {
+                                escaped = true;
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    fs[n] = s;
+                    fe[n] = pos;
+                    fq[n] = escaped;
+                    pos++; // closing quote
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n') pos++;
+                } else {
+                    int s = pos;
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n') pos++;
+                    int e = pos;
+                    if (e > s && buf.get(e - 1) == '\r') e--;
+                    // trim spaces around unquoted fields
+                    while (s < e && buf.get(s) == ' ') s++;
+                    while (e > s && buf.get(e - 1) == ' ') e--;
+                    fs[n] = s;
+                    fe[n] = e;
+                    fq[n] = false;
+                }
+                n++;
+                if (pos >= limit || buf.get(pos) == '\n') return n;
+                pos++; // comma
+            }
+        }
+
+        /** Unsigned whole number of at most 9 digits (so it fits an int). */
+        private boolean isInteger(ByteBuffer buf, int f) {
+            int s = fs[f], e = fe[f];
+            if (s == e || e - s > 9) return false;
+            for (int i = s; i < e; i++) {
+                byte b = buf.get(i);
+                if (b < '0' || b > '9') return false;
+            }
+            return true;
+        }
+
+        private boolean isNegative(ByteBuffer buf, int f) {
+            return fs[f] < fe[f] && buf.get(fs[f]) == '-';
+        }
+
+        private static int parseInt(ByteBuffer buf, int s, int e) {
+            int v = 0;
+            for (int i = s; i < e; i++) v = v * 10 + (buf.get(i) - '0');
+            return v;
+        }
+
+        private int category(ByteBuffer buf) {
+            int c = match(buf, fs[1], fe[1], CATEGORY_CODES);
+            return c >= 0 ? c : match(buf, fs[1], fe[1], CATEGORY_NAMES);
+        }
+
+        /** 0-2, -1 when empty (keep), -2 when unrecognized. */
+        private int complexity(ByteBuffer buf) {
+            int s = fs[3], e = fe[3];
+            if (s == e) return -1;
+            if (e - s == 1 && buf.get(s) >= '0' && buf.get(s) <= '2') return buf.get(s) - '0';
+            int w = match(buf, s, e, COMPLEXITY_WORDS);
+            return w < 0 ? -2 : COMPLEXITY_VALUES[w];
+        }
+
+        // case-insensitive ASCII compare against lower-case candidates
+        private static int match(ByteBuffer buf, int s, int e, byte[][] candidates) {
+            outer:
+            for (int c = 0; c < candidates.length; c++) {
+                byte[] w = candidates[c];
+                if (w.length != e - s) continue;
+                for (int i = 0; i < w.length; i++) {
+                    int b = buf.get(s + i);
+                    if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                    if (b != w[i]) continue outer;
+                }
+                return c;
+            }
+            return -1;
+        }
+
+        /** Key bytes of a quoted field with "" collapsed, in the scratch buffer; returns length. */
+        int unescape(ByteBuffer buf, int s, int e) {
+            if (scratch.length < e - s) scratch = new byte[e - s];
+            int n = 0;
+            for (int i = s; i < e; i++) {
+                byte b = buf.get(i);
+                scratch[n++] = b;
+                if (b == '"') i++; // skip the second quote of the pair
+            }
+            return n;
+        }
+    }
+
+    // ----- open-addressing table keyed by project-name bytes -----
+
+    private static final class ProjectTable {
+        static final class Acc {
+            final byte[] key;
+            final int hash;
+            long firstOffset;
+            final long[] counts = new long[FunctionPointEngine.ITEMS]; // int per row, long summed: no wrap
+            final int[] complexities = {1, 1, 1, 1, 1};
+            final long[] cxOffset = {-1, -1, -1, -1, -1};
+            final int[] vafValues = new int[FunctionPointEngine.VAF_FACTORS];
+            final long[] vafOffset = new long[FunctionPointEngine.VAF_FACTORS];
+
+            Acc(byte[] key, int hash, long firstOffset) {
+                this.key = key;
+                this.hash = hash;
+                this.firstOffset = firstOffset;
+                Arrays.fill(vafOffset, -1);
+            }
+        }
+
+        private Acc[] slots = new Acc[64];
+        private int size;
+
+        Acc lookup(ByteBuffer buf, int s, int e, boolean quotedEscapes, Chunk chunk, long offset) {
+            byte[] src;
+            int from, len;
+            if (quotedEscapes) {
+                len = chunk.unescape(buf, s, e);
+                src = chunk.scratch;
+                from = 0;
+            } else {
+                src = null;
+                from = s;
+                len = e - s;
+            }
+
+            int h = 1;
+            for (int i = 0; i < len; i++) h = 31 * h + (src != null ? src[from + i] : buf.get(from + i));
+            h ^= h >>> 16;
+
+            int mask = slots.length - 1;
+            for (int i = h & mask; ; i = (i + 1) & mask) {
+                Acc a = slots[i];
+                if (a == null) {
+                    byte[] key = new byte[len];
+                    if (src != null) System.arraycopy(src, from, key, 0, len);
+                    else buf.get(from, key);
+                    a = new Acc(key, h, offset);
+                    slots[i] = a;
+                    if (++size * 2 > slots.length) grow();
+                    return a;
+                }
+                if (a.hash == h && a.key.length == len && sameBytes(a.key, buf, src, from, len)) return a;
+            }
+        }
+
+        private static boolean sameBytes(byte[] key, ByteBuffer buf, byte[] src, int from, int len) {
+            for (int i = 0; i < len; i++) {
+                byte b = src != null ? src[from + i] : buf.get(from + i);
+                if (key[i] != b) return false;
+            }
+            return true;
+        }
+
+        private Acc find(byte[] key, int hash) {
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Acc a = slots[i];
+                if (a == null) return null;
+                if (a.hash == hash && Arrays.equals(a.key, key)) return a;
+            }
+        }
+
+        private void insert(Acc a) {
+            int mask = slots.length - 1;
+            int i = a.hash & mask;
+            while (slots[i] != null) i = (i + 1) & mask;
+            slots[i] = a;
+            if (++size * 2 > slots.length) grow();
+        }
+
+        private void grow() {
+            Acc[] old = slots;
+            slots = new Acc[old.length * 2];
+            size = 0;
+            for (Acc a : old) {
+                if (a != null) insert(a);
+            }
+        }
+
+        /** Folds another chunk's projects in: counts add, later offsets win for complexity and VAF. */
+        void mergeAll(ProjectTable other) {
+            for (Acc o : other.slots) {
+                if (o == null) continue;
+                Acc a = find(o.key, o.hash);
+                if (a == null) {
+                    insert(o);
+                    continue;
+                }
+                a.firstOffset = Math.min(a.firstOffset, o.firstOffset);
+                for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+                    a.counts[i] += o.counts[i];
+                    if (o.cxOffset[i] > a.cxOffset[i]) {
+                        a.cxOffset[i] = o.cxOffset[i];
+                        a.complexities[i] = o.complexities[i];
+                    }
+                }
+                for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+                    if (o.vafOffset[k] > a.vafOffset[k]) {
+                        a.vafOffset[k] = o.vafOffset[k];
+                        a.vafValues[k] = o.vafValues[k];
+                    }
+                }
+            }
+        }
+
+        void emit(Result out) {
+            List<Acc> all = new ArrayList<>(size);
+            for (Acc a : slots) {
+                if (a != null) all.add(a);
+            }
+            all.sort(Comparator.comparingLong(a -> a.firstOffset));
+
+            DecimalFormat fpFmt = new DecimalFormat("#,##0.0");
+            for (Acc a : all) {
+                String name = new String(a.key, StandardCharsets.UTF_8);
+                ProjectModel.FPState s = new ProjectModel.FPState();
+                for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+                    if (a.counts[i] > MAX_COUNT) {
+                        if (out.errors.size() < MAX_ERRORS) {
+                            out.errors.add("project " + name + ": " + CATEGORY_LABELS[i] + " count " + a.counts[i]
+                                    + " saturated at " + MAX_COUNT);
+                        }
+                        s.counts[i] = MAX_COUNT;
+                    } else {
+                        s.counts[i] = (int) a.counts[i];
+                    }
+                }
+                System.arraycopy(a.complexities, 0, s.complexities, 0, FunctionPointEngine.ITEMS);
+                System.arraycopy(a.vafValues, 0, s.vafValues, 0, FunctionPointEngine.VAF_FACTORS);
+                s.totalWeighted = FunctionPointEngine.totalWeighted(s.counts, s.complexities);
+                s.vafSum = FunctionPointEngine.vafSum(s.vafValues);
+                s.fpFormatted = fpFmt.format(FunctionPointEngine.functionPoints(s.totalWeighted, s.vafSum));
+                out.projects.put(name, s);
+            }
+        }
+    }
+
+    private static byte[][] bytes(String... words) {
+        byte[][] out = new byte[words.length][];
+        for (int i = 0; i < words.length; i++) out[i] = words[i].getBytes(StandardCharsets.US_ASCII);
+        return out;
+    }
+}
@@ -0,0 +1,84 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/** Help > Diagnostics: the {@link Metrics} registry as a table, with refresh, reset and export. */
+public class DiagnosticsDialog extends JDialog {
+
+    private final JTextArea text = new JTextArea();
+
+    public DiagnosticsDialog(JFrame owner) {
+        super(owner, "Diagnostics", true);
+        setSize(900, 420);
+        setLocationRelativeTo(owner);
+
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton refresh = new JButton("Refresh");
+        JButton reset = new JButton("Reset");
+        JButton export = new JButton("Export...");
+        JButton close = new JButton("Close");
+        refresh.addActionListener(e -> refresh());
+        reset.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        export.addActionListener(e -> export());
+        close.addActionListener(e -> dispose());
+
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btns.add(refresh);
+        btns.add(reset);
+        btns.add(export);
+        btns.add(close);
+
+        setLayout(new BorderLayout(10, 10));
+        add(new JLabel("  Timings since startup (JFR event: cecs544.Operation)"), BorderLayout.NORTH);
+        add(new JScrollPane(text), BorderLayout.CENTER);
+        add(btns, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    private void refresh() {
+        StringBuilder sb = new StringBuilder(Metrics.report());
+        FpCache cache = FpCache.shared();
+        sb.append(String.format("%nFP cache: %,d of %,d entries, hit rate %.1f%%%n",
+                cache.size(), cache.capacity(), cache.hitRate() * 100));
+        EdtWatchdog w = EdtWatchdog.get();
+        if (w != null && !w.recentStalls().isEmpty()) {
+            sb.append(String.format("%nRecent EDT stalls%n"));
+            for (String r : w.recentStalls()) sb.append(r).append(System.lineSeparator());
+        }
+        text.setText(sb.toString());
+        text.setCaretPosition(0);
+    }
+
+    // .json gets the machine-readable form, anything else the text table
+    private void export() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Diagnostics");
+        chooser.setSelectedFile(new File("metrics.json"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File f = chooser.getSelectedFile();
+        try (Writer out = Files.newBufferedWriter(f.toPath(), StandardCharsets.UTF_8)) {
+            if (f.getName().toLowerCase().endsWith(".json")) {
+                Metrics.writeJson(out);
+            } else {
+                out.write(text.getText());
+            }
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Export failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(this, "Exported: " + f.getAbsolutePath());
+    }
+}
@@ -0,0 +1,193 @@
+package cecs544.metrics;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event Dispatch Thread responsiveness monitor.
+ *
+ * A pushed EventQueue times every dispatch into the "edt.dispatch" histogram, and a heartbeat
+ * {@code invokeLater} probe measures queueing delay into "edt.heartbeat". When one dispatch keeps
+ * the EDT busy past the threshold, a watchdog thread captures the EDT stack and logs it to stderr
+ * with the event and the first application frame (usually the offending listener).
+ *
+ * Modal dialogs run a nested dispatch loop inside the event that opened them; time spent in
+ * nested dispatches does not count towards the outer event.
+ *
+ * -Dcecs544.edt.thresholdMs=100 sets the stall threshold; -Dcecs544.edt.watchdog=false disables it.
+ */
+public final class EdtWatchdog {
+
+    private static final int HEARTBEAT_MS = 250;
+    private static final int MAX_REPORTS = 20;
+    private static final int MAX_FRAMES = 30;
+
+    private static EdtWatchdog installed;
+
+    private final long thresholdNanos;
+    private final LatencyHistogram dispatch = Metrics.histogram("edt.dispatch");
+    private final LatencyHistogram heartbeat = Metrics.histogram("edt.heartbeat");
+    private final Metrics.Counter stalls = Metrics.counter("edt.stalls");
+    private final ArrayDeque<String> reports = new ArrayDeque<>();
+
+    // written on the EDT, read by the watchdog thread
+    private volatile Thread edt;
+    private volatile long segmentStart; // 0 when idle
+    private volatile long segmentSeq;
+    private volatile AWTEvent current;
+    private volatile boolean probePending;
+    // segment whose stall was last logged; the watcher and the dispatch summary claim it, so one stall logs once
+    private final AtomicLong loggedSeq = new AtomicLong(-1);
+
+    private EdtWatchdog(long thresholdMs) {
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+    }
+
+    /** Installs the watchdog once (no-op when disabled or headless); returns it or null. */
+    public static synchronized EdtWatchdog install() {
+        if (installed != null) return installed;
+        if (GraphicsEnvironment.isHeadless() || !Boolean.parseBoolean(System.getProperty("cecs544.edt.watchdog", "true"))) {
+            return null;
+        }
+        EdtWatchdog w = new EdtWatchdog(Math.max(10, Long.getLong("cecs544.edt.thresholdMs", 100)));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(w.new MonitoredQueue());
+
+        Thread t = new Thread(w::watch, "edt-watchdog");
+        t.setDaemon(true);
+        t.start();
+        installed = w;
+        return w;
+    }
+
+    public static EdtWatchdog get() {
+        return installed;
+    }
+
+    /** Most recent stall reports, newest last. */
+    public List<String> recentStalls() {
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+
+    private final class MonitoredQueue extends EventQueue {
+        // EDT-only bookkeeping for nested dispatch loops
+        private final ArrayDeque<AWTEvent> outer = new ArrayDeque<>();
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            AWTEvent enclosing = current;
+            if (enclosing != null) {
+                outer.push(enclosing);
+            } else {
+                edt = Thread.currentThread(); // AWT starts a new EDT after an uncaught exception
+            }
+
+            current = event;
+            long start = System.nanoTime();
+            long seq = ++segmentSeq;
+            segmentStart = start;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long end = System.nanoTime();
+                long busy = end - segmentStart; // last stretch without a nested dispatch
+                dispatch.record(busy);
+                if (busy > thresholdNanos) {
+                    stalls.increment();
+                    if (segmentSeq == seq && loggedSeq.getAndSet(seq) != seq) {
+                        log(String.format("EDT stall: %,d ms in %s", busy / 1_000_000, describe(event)));
+                    }
+                }
+
+                // the enclosing dispatch (if any) resumes now
+                current = outer.isEmpty() ? null : outer.pop();
+                segmentStart = current == null ? 0 : end;
+                segmentSeq++;
+            }
+        }
+    }
+
+    private void watch() {
+        long reportedSeq = -1;
+        long sleepMs = Math.max(5, thresholdNanos / 4_000_000L);
+        long nextProbe = 0;
+        while (true) {
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            long now = System.nanoTime();
+
+            long start = segmentStart;
+            long seq = segmentSeq;
+            Thread t = edt;
+            if (start != 0 && t != null && seq != reportedSeq && now - start > thresholdNanos) {
+                reportedSeq = seq;
+                AWTEvent ev = current;
+                StackTraceElement[] stack = t.getStackTrace();
+                // still the same dispatch after sampling the stack, and not summarized already?
+                if (segmentSeq == seq && loggedSeq.getAndSet(seq) != seq) {
+                    log(stallReport((now - start) / 1_000_000, ev, stack));
+                }
+            }
+
+            if (!probePending && now >= nextProbe) {
+                probePending = true;
+                nextProbe = now + HEARTBEAT_MS * 1_000_000L;
+                long posted = now;
+                EventQueue.invokeLater(() -> {
+                    heartbeat.record(System.nanoTime() - posted);
+                    probePending = false;
+                });
+            }
+        }
+    }
+
+    private static String stallReport(long ms, AWTEvent ev, StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("EDT blocked for %,d ms in %s", ms, describe(ev)));
+        StackTraceElement culprit = firstApplicationFrame(stack);
+        if (culprit != null) sb.append(" at ").append(culprit);
+        for (int i = 0; i < Math.min(stack.length, MAX_FRAMES); i++) {
+            sb.append(System.lineSeparator()).append("\tat ").append(stack[i]);
+        }
+        if (stack.length > MAX_FRAMES) sb.append(System.lineSeparator()).append("\t...");
+        return sb.toString();
+    }
+
+    private static StackTraceElement firstApplicationFrame(StackTraceElement[] stack) {
+        for (StackTraceElement f : stack) {
+            if (f.getClassName().startsWith("cecs544.") && !f.getClassName().startsWith(EdtWatchdog.class.getName())) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(AWTEvent ev) {
+        if (ev == null) return "(unknown event)";
+        if (ev instanceof java.awt.event.InvocationEvent) {
+            // paramString names the Runnable (e.g. a coalesced recalculation); drop the rest
+            String p = ev.paramString();
+            int r = p.indexOf("runnable=");
+            int end = p.indexOf(',', r);
+            return "InvocationEvent " + (r < 0 ? p : p.substring(r, end < 0 ? p.length() : end));
+        }
+        Object src = ev.getSource();
+        return ev.getClass().getSimpleName() + " id=" + ev.getID()
+                + (src != null ? " from " + src.getClass().getName() : "");
+    }
+
+    private void log(String report) {
+        System.err.println(report);
+        synchronized (reports) {
+            if (reports.size() == MAX_REPORTS) reports.removeFirst();
+            reports.addLast(report);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package cecs544.metrics;
+
+import java.text.DecimalFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded memo of derived FP metrics, keyed exactly by the inputs (counts, complexities, VAF
+ * values, language) - not by a lossy hash, so a hit can never return another project's numbers.
+ *
+ * The arithmetic itself is a handful of multiply-adds; what a hit saves is the formatting of
+ * the FP and LOC text, which costs far more. Counts are clamped and complexities normalized the
+ * way the engine does, and languages are reduced to their LOC/FP id, so inputs that compute the
+ * same result share one entry.
+ *
+ * The map is split into independently locked LRU segments (access-ordered LinkedHashMaps), so
+ * threads only contend when they hit the same segment. Hits, misses and evictions go to
+ * {@link Metrics} counters named after the cache.
+ */
+public final class FpCache {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int SEGMENTS = 16;
+
+    private static final FpCache SHARED = new FpCache("fpcache", Integer.getInteger("cecs544.fpcache.size", DEFAULT_CAPACITY));
+    private static final ThreadLocal<DecimalFormat> FP_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.0"));
+
+    /** Computed metrics for one input; the text forms are built on first use and then kept. */
+    public static final class Value {
+        public final int totalWeighted;
+        public final int vafSum;
+        public final double fp;
+        public final double loc;
+        private String fpFormatted, fpText, locText;
+
+        Value(int totalWeighted, int vafSum, String language) {
+            this.totalWeighted = totalWeighted;
+            this.vafSum = vafSum;
+            this.fp = FunctionPointEngine.functionPoints(totalWeighted, vafSum);
+            this.loc = FunctionPointEngine.linesOfCode(fp, language);
+        }
+
+        public long fp100() { return FunctionPointEngine.functionPoints100(totalWeighted, vafSum); }
+
+        /** "#,##0.0", as shown in the FP tab and stored in {@code fpFormatted}. */
+        public String fpFormatted() {
+            String s = fpFormatted;
+            if (s == null) fpFormatted = s = FP_FORMAT.get().format(fp);
+            return s;
+        }
+
+        /** "%.1f". */
+        public String fpText() {
+            String s = fpText;
+            if (s == null) fpText = s = String.format("%.1f", fp);
+            return s;
+        }
+
+        /** "%.0f". */
+        public String locText() {
+            String s = locText;
+            if (s == null) locText = s = String.format("%.0f", loc);
+            return s;
+        }
+    }
+
+    private static final class Key {
+        final int c0, c1, c2, c3, c4;
+        final long packed; // complexities, VAF values and language id
+        final int hash;
+
+        Key(int[] counts, long packed) {
+            c0 = Math.max(counts[0], 0);
+            c1 = Math.max(counts[1], 0);
+            c2 = Math.max(counts[2], 0);
+            c3 = Math.max(counts[3], 0);
+            c4 = Math.max(counts[4], 0);
+            this.packed = packed;
+            int h = Long.hashCode(packed * 0x9E3779B97F4A7C15L);
+            h = 31 * (31 * (31 * (31 * (31 * h + c0) + c1) + c2) + c3) + c4;
+            hash = h ^ (h >>> 16);
+        }
+
+        @Override public int hashCode() { return hash; }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.packed == packed
+                    && k.c0 == c0 && k.c1 == c1 && k.c2 == c2 && k.c3 == c3 && k.c4 == c4;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, Value> {
+        private final int capacity;
+        private final Metrics.Counter evictions;
+
+        Segment(int capacity, Metrics.Counter evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest) {
+            if (size() <= capacity) return false;
+            evictions.increment();
+            return true;
+        }
+    }
+
+    private final int capacity;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Metrics.Counter hits;
+    private final Metrics.Counter misses;
+    private final Metrics.Counter bypassed;
+
+    public FpCache(String name, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        hits = Metrics.counter(name + ".hits");
+        misses = Metrics.counter(name + ".misses");
+        bypassed = Metrics.counter(name + ".bypassed");
+        Metrics.Counter evictions = Metrics.counter(name + ".evictions");
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(perSegment, evictions);
+    }
+
+    /** Process-wide instance used by the batch tools and the FP service ({@code -Dcecs544.fpcache.size}). */
+    public static FpCache shared() {
+        return SHARED;
+    }
+
+    public Value get(ProjectModel.FPState s, String language) {
+        return get(s.counts, s.complexities, s.vafValues, language);
+    }
+
+    public Value get(int[] counts, int[] complexities, int[] vafValues, String language) {
+        long packed = pack(complexities, vafValues, language);
+        if (packed < 0) {
+            // VAF values outside 0-5 cannot be packed; still answer, just don't remember
+            bypassed.increment();
+            return compute(counts, complexities, vafValues, language);
+        }
+        Key key = new Key(counts, packed);
+        Segment seg = segments[(key.hash >>> 8) & (SEGMENTS - 1)];
+        synchronized (seg) {
+            Value v = seg.get(key);
+            if (v != null) {
+                hits.increment();
+                return v;
+            }
+        }
+        // computed outside the lock; a racing miss on the same key just stores an equal value
+        Value v = compute(counts, complexities, vafValues, language);
+        misses.increment();
+        synchronized (seg) {
+            seg.put(key, v);
+        }
+        return v;
+    }
+
+    private static Value compute(int[] counts, int[] complexities, int[] vafValues, String language) {
+        return new Value(FunctionPointEngine.totalWeighted(counts, complexities),
+                FunctionPointEngine.vafSum(vafValues), language);
+    }
+
+    // 2 bits per complexity, 3 per VAF value, language id above them; -1 when a VAF value is out of range
+    private static long pack(int[] complexities, int[] vafValues, String language) {
+        if (vafValues.length != FunctionPointEngine.VAF_FACTORS) return -1;
+        long packed = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            packed |= (long) FunctionPointEngine.normalizeComplexity(complexities[i]) << (2 * i);
+        }
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+            int v = vafValues[k];
+            if (v < 0 || v > 5) return -1;
+            packed |= (long) v << (2 * FunctionPointEngine.ITEMS + 3 * k);
+        }
+        return packed | (long) FunctionPointEngine.languageId(language) << 56;
+    }
+
+    public int capacity() { return capacity; }
+
+    public int size() {
+        int n = 0;
+        for (Segment seg : segments) {
+            synchronized (seg) {
+                n += seg.size();
+            }
+        }
+        return n;
+    }
+
+    public long hits() { return hits.get(); }
+
+    public long misses() { return misses.get(); }
+
+    public double hitRate() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public void clear() {
+        for (Segment seg : segments) {
+            synchronized (seg) {
+                seg.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+
+/** Shows the exact FP range over all complexity and VAF assignments for the current counts. */
+public class FpRangeDialog extends JDialog {
+
+    private static final double[] QUANTILES = {0.01, 0.10, 0.25, 0.50, 0.75, 0.90, 0.99};
+    private static final int BINS = 400;
+
+    public FpRangeDialog(JFrame owner, int[] counts) {
+        super(owner, "FP Range Explorer", true);
+        setSize(640, 460);
+        setLocationRelativeTo(owner);
+
+        FpRangeExplorer.Result r = FpRangeExplorer.explore(counts);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Counts: ");
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(FunctionPointsPanel.FP_ITEMS[i]).append(' ').append(counts[i]);
+        }
+        sb.append(String.format("%nAssignments: %,d (3^5 complexities x 6^14 VAF values), computed in %.1f ms%n",
+                r.total, r.elapsedNanos / 1e6));
+        sb.append(String.format("FP range: %,.1f - %,.1f   mean %,.1f   distinct values %,d%n%n",
+                r.min(), r.max(), r.mean, r.fp100.length));
+        for (double q : QUANTILES) {
+            sb.append(String.format("P%-3d %,12.1f%n", Math.round(q * 100), r.quantile(q)));
+        }
+
+        JTextArea text = new JTextArea(sb.toString());
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        HistogramPanel histogram = new HistogramPanel();
+        histogram.setBorder(new TitledBorder("Share of assignments by FP"));
+        histogram.setHistogram(r.histogram(BINS), r.min(), r.binWidth(BINS));
+
+        JButton close = new JButton("Close");
+        close.addActionListener(e -> dispose());
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btns.add(close);
+
+        setLayout(new BorderLayout(10, 10));
+        add(new JScrollPane(text), BorderLayout.CENTER);
+        add(histogram, BorderLayout.NORTH);
+        add(btns, BorderLayout.SOUTH);
+    }
+}
@@ -0,0 +1,139 @@
+package cecs544.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Exact FP distribution for fixed counts over every complexity choice (3^5) and every
+ * VAF assignment (6^14, about 78 billion).
+ *
+ * VAF only enters through its sum, so the 14 factors collapse into a 71-entry table of
+ * "number of assignments per sum" (a DP convolution). Combined with the 243 UFP outcomes that
+ * is at most 17,253 (UFP, sum) pairs, each weighted by how many assignments produce it.
+ */
+public final class FpRangeExplorer {
+
+    private static final int VAF_MAX = 5;
+
+    private FpRangeExplorer() {}
+
+    public static final class Result {
+        /** Distinct FP x 100 values, ascending, and how many assignments give each. */
+        public long[] fp100;
+        public long[] ways;
+        /** 3^5 * 6^14 */
+        public long total;
+        public double mean;
+        public long elapsedNanos;
+
+        public double min() { return fp100[0] / 100.0; }
+
+        public double max() { return fp100[fp100.length - 1] / 100.0; }
+
+        /** Smallest FP whose cumulative share of all assignments reaches {@code q}. */
+        public double quantile(double q) {
+            double target = q * total;
+            long seen = 0;
+            for (int i = 0; i < fp100.length; i++) {
+                seen += ways[i];
+                if (seen >= target) return fp100[i] / 100.0;
+            }
+            return max();
+        }
+
+        /** Equal-width histogram of the exact distribution (bin start = min(), width = binWidth(bins)). */
+        public long[] histogram(int bins) {
+            long lo = fp100[0], hi = fp100[fp100.length - 1];
+            long width = binWidth100(bins);
+            long[] out = new long[(int) ((hi - lo) / width) + 1];
+            for (int i = 0; i < fp100.length; i++) out[(int) ((fp100[i] - lo) / width)] += ways[i];
+            return out;
+        }
+
+        public double binWidth(int bins) {
+            return binWidth100(bins) / 100.0;
+        }
+
+        private long binWidth100(int bins) {
+            long range = fp100[fp100.length - 1] - fp100[0];
+            return Math.max(1, (range + bins) / bins);
+        }
+    }
+
+    public static Result explore(int[] counts) {
+        long start = System.nanoTime();
+
+        // UFP outcomes over all 3^5 complexity assignments
+        long[] ufpWays = {1};
+        int[] ufpValues = {0};
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            int[] nextValues = new int[ufpValues.length * 3];
+            long[] nextWays = new long[ufpWays.length * 3];
+            for (int j = 0; j < ufpValues.length; j++) {
+                for (int cx = 0; cx < 3; cx++) {
+                    nextValues[j * 3 + cx] = ufpValues[j] + FunctionPointEngine.weighted(i, counts[i], cx);
+                    nextWays[j * 3 + cx] = ufpWays[j];
+                }
+            }
+            ufpValues = nextValues;
+            ufpWays = nextWays;
+        }
+
+        long[] vafWays = vafSumWays();
+
+        // every (UFP, VAF sum) pair, weighted; then sort and merge equal FP values
+        int pairs = ufpValues.length * vafWays.length;
+        long[] keys = new long[pairs];
+        long[] weights = new long[pairs];
+        int p = 0;
+        for (int j = 0; j < ufpValues.length; j++) {
+            for (int s = 0; s < vafWays.length; s++) {
+                keys[p] = (long) ufpValues[j] * (65 + s);
+                weights[p] = ufpWays[j] * vafWays[s];
+                p++;
+            }
+        }
+        Integer[] order = new Integer[pairs];
+        for (int k = 0; k < pairs; k++) order[k] = k;
+        long[] sortKeys = keys;
+        Arrays.sort(order, (a, b) -> Long.compare(sortKeys[a], sortKeys[b]));
+
+        long[] fp100 = new long[pairs];
+        long[] ways = new long[pairs];
+        int n = 0;
+        double weightedSum = 0;
+        long total = 0;
+        for (int k = 0; k < pairs; k++) {
+            int idx = order[k];
+            if (n > 0 && fp100[n - 1] == keys[idx]) {
+                ways[n - 1] += weights[idx];
+            } else {
+                fp100[n] = keys[idx];
+                ways[n] = weights[idx];
+                n++;
+            }
+            total += weights[idx];
+            weightedSum += (double) keys[idx] * weights[idx];
+        }
+
+        Result r = new Result();
+        r.fp100 = Arrays.copyOf(fp100, n);
+        r.ways = Arrays.copyOf(ways, n);
+        r.total = total;
+        r.mean = weightedSum / total / 100.0;
+        r.elapsedNanos = System.nanoTime() - start;
+        return r;
+    }
+
+    /** ways[s] = number of 14-factor assignments (each 0..5) whose values sum to s. */
+    static long[] vafSumWays() {
+        long[] ways = {1};
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+            long[] next = new long[ways.length + VAF_MAX];
+            for (int s = 0; s < ways.length; s++) {
+                for (int v = 0; v <= VAF_MAX; v++) next[s + v] += ways[s];
+            }
+            ways = next;
+        }
+        return ways;
+    }
+}
@@ -0,0 +1,288 @@
+package cecs544.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless FP service on the JDK's built-in HTTP server.
+ *
+ *   POST /fp        a .ms project (JSON or binary)   -> one result object
+ *   POST /fp/batch  a JSON array of fpState objects  -> array of result objects
+ *   GET  /metrics   request counts and latency histograms per endpoint
+ *
+ * Results are recomputed from counts / complexities / VAF values; stored totals are ignored.
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+), otherwise on
+ * a cached thread pool.
+ *
+ * Listens on the loopback interface unless another address is given explicitly. Request
+ * bodies over {@code -Dcecs544.fpserver.maxBodyBytes} (default 16 MB) are refused with 413.
+ */
+public class FpServer {
+
+    public static final int DEFAULT_PORT = 8544;
+    public static final long MAX_BODY_BYTES = Long.getLong("cecs544.fpserver.maxBodyBytes", 16L << 20);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Endpoint single = new Endpoint("/fp");
+    private final Endpoint batch = new Endpoint("/fp/batch");
+    private final Endpoint metrics = new Endpoint("/metrics");
+
+    /** Per-endpoint statistics. */
+    private static final class Endpoint {
+        final String path;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder records = new LongAdder();
+
+        Endpoint(String path) { this.path = path; }
+    }
+
+    /** Request body over {@link #MAX_BODY_BYTES}. */
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException() { super("Request body exceeds " + MAX_BODY_BYTES + " bytes"); }
+    }
+
+    /** Listens on the loopback interface only. */
+    public FpServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /** {@code bind} null listens on every interface. */
+    public FpServer(InetAddress bind, int port) throws IOException {
+        // headers and body go out as separate writes; without TCP_NODELAY every response
+        // waits on the client's delayed ACK (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(bind, port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(single.path, timed(single, this::handleSingle));
+        server.createContext(batch.path, timed(batch, this::handleBatch));
+        server.createContext(metrics.path, timed(metrics, this::handleMetrics));
+    }
+
+    public static void main(String[] args) throws IOException {
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--bind") && i + 1 < args.length) {
+                // e.g. --bind 0.0.0.0 to accept connections from other machines
+                bind = InetAddress.getByName(args[++i]);
+            } else {
+                port = Integer.parseInt(args[i]);
+            }
+        }
+        FpServer s = new FpServer(bind, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(s::stop));
+        s.start();
+        System.err.println("FP service listening on http://" + bind.getHostAddress() + ":" + s.getPort() + "/fp");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Virtual threads are Java 21+; looked up reflectively so the project still builds on 17.
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "fp-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // ----- handlers -----
+
+    private interface Handler {
+        /** Writes the response body and returns the HTTP status. */
+        int handle(HttpExchange ex, JsonMini.Generator out) throws IOException;
+    }
+
+    private static HttpHandler timed(Endpoint ep, Handler h) {
+        return ex -> {
+            long start = System.nanoTime();
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            JsonMini.Generator g = JsonMini.newGenerator(body);
+            int status;
+            try {
+                if (!ex.getRequestURI().getPath().equals(ep.path)) {
+                    status = error(g, 404, "Not found");
+                } else {
+                    status = h.handle(ex, g);
+                }
+            } catch (BodyTooLargeException e) {
+                body.reset();
+                g = JsonMini.newGenerator(body);
+                status = error(g, 413, e.getMessage());
+            } catch (IllegalArgumentException | IOException e) {
+                body.reset();
+                g = JsonMini.newGenerator(body);
+                status = error(g, 400, e.getMessage() != null ? e.getMessage() : "Invalid request");
+            } catch (RuntimeException e) {
+                System.err.println(ep.path + ": " + e);
+                body.reset();
+                g = JsonMini.newGenerator(body);
+                status = error(g, 500, "Internal error");
+            }
+            g.flush();
+            if (status >= 400) ep.errors.increment();
+
+            try (HttpExchange x = ex) {
+                x.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                x.sendResponseHeaders(status, body.size());
+                body.writeTo(x.getResponseBody());
+            } finally {
+                ep.latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private int handleSingle(HttpExchange ex, JsonMini.Generator out) throws IOException {
+        if (!ex.getRequestMethod().equals("POST")) return error(out, 405, "Use POST");
+        ProjectModel m;
+        try (InputStream in = requestBody(ex)) {
+            m = ProjectModel.read(in, JsonMini.newParser(Reader.nullReader()));
+        }
+        ProjectModel.FPState s = m.fpState != null ? m.fpState : new ProjectModel.FPState();
+        String lang = s.language != null ? s.language : m.language;
+        writeResult(out, m.projectName, s, lang);
+        single.records.increment();
+        return 200;
+    }
+
+    private int handleBatch(HttpExchange ex, JsonMini.Generator out) throws IOException {
+        if (!ex.getRequestMethod().equals("POST")) return error(out, 405, "Use POST");
+        try (InputStream in = requestBody(ex)) {
+            JsonMini.PullParser p = JsonMini.newParser(new BufferedInputStream(in));
+            if (p.next() != JsonMini.Token.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of fpState objects");
+            }
+            out.beginArray();
+            long n = 0;
+            for (JsonMini.Token t = p.next(); t != JsonMini.Token.END_ARRAY; t = p.next()) {
+                if (t != JsonMini.Token.START_OBJECT) {
+                    throw new IllegalArgumentException("Element " + n + " is not an object");
+                }
+                ProjectModel.FPState s = ProjectModel.FPState.read(p);
+                writeResult(out, null, s, s.language);
+                n++;
+            }
+            out.endArray();
+            if (p.next() != JsonMini.Token.END_DOCUMENT) {
+                throw new IllegalArgumentException("Unexpected trailing content");
+            }
+            batch.records.add(n);
+        }
+        return 200;
+    }
+
+    private int handleMetrics(HttpExchange ex, JsonMini.Generator out) throws IOException {
+        if (!ex.getRequestMethod().equals("GET")) return error(out, 405, "Use GET");
+        out.beginObject();
+        for (Endpoint ep : new Endpoint[]{single, batch, metrics}) {
+            out.name(ep.path).beginObject();
+            out.name("requests").value(ep.latency.count());
+            out.name("errors").value(ep.errors.sum());
+            out.name("records").value(ep.records.sum());
+            out.name("latency");
+            ep.latency.write(out);
+            out.endObject();
+        }
+        FpCache cache = FpCache.shared();
+        out.name("fpCache").beginObject();
+        out.name("size").value(cache.size());
+        out.name("capacity").value(cache.capacity());
+        out.name("hits").value(cache.hits());
+        out.name("misses").value(cache.misses());
+        out.endObject();
+        out.endObject();
+        return 200;
+    }
+
+    // Refuses a declared Content-Length over the cap up front; a chunked body fails once it passes it.
+    private static InputStream requestBody(HttpExchange ex) throws IOException {
+        String declared = ex.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > MAX_BODY_BYTES) throw new BodyTooLargeException();
+            } catch (NumberFormatException ignored) {
+                // left to the server's own handling of the header
+            }
+        }
+        return new FilterInputStream(ex.getRequestBody()) {
+            private long read;
+
+            @Override public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) count(1);
+                return b;
+            }
+
+            @Override public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) count(n);
+                return n;
+            }
+
+            private void count(int n) throws IOException {
+                read += n;
+                if (read > MAX_BODY_BYTES) throw new BodyTooLargeException();
+            }
+        };
+    }
+
+    private static void writeResult(JsonMini.Generator out, String projectName, ProjectModel.FPState s,
+                                    String lang) throws IOException {
+        FpCache.Value r = FpCache.shared().get(s, lang);
+        long fp100 = r.fp100();
+        long locPerFp = (long) FunctionPointEngine.locPerFp(lang);
+        out.beginObject();
+        if (projectName != null) out.name("projectName").value(projectName);
+        out.name("language").value(lang);
+        out.name("totalWeighted").value(r.totalWeighted);
+        out.name("vafSum").value(r.vafSum);
+        out.name("fp").value(fp100 / 100.0);
+        out.name("loc").value(fp100 * locPerFp / 100.0);
+        out.name("locPerFp").value(locPerFp);
+        out.endObject();
+    }
+
+    private static int error(JsonMini.Generator out, int status, String message) throws IOException {
+        out.beginObject().name("error").value(message).endObject();
+        return status;
+    }
+}
@@ -0,0 +1,305 @@
+package cecs544.metrics;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * Table model for per-function counting: one row per EI/EO/EQ/ILF/EIF with its own complexity.
+ *
+ * Rows live in parallel primitive columns (no object per row), and the per-category totals are
+ * kept as a running rollup: adding, removing or editing a function applies only that function's
+ * weight delta, so edits stay O(1) no matter how many rows there are.
+ *
+ * A row with a DET count (> 0) gets its complexity from {@link ComplexityClassifier} whenever its
+ * DETs, RETs/FTRs or type change; rows without one keep the complexity picked by hand.
+ */
+public class FunctionListModel extends AbstractTableModel {
+
+    public static final String[] TYPES = {"EI", "EO", "EQ", "ILF", "EIF"}; // same order as FP_ITEMS
+    public static final String[] COMPLEXITIES = {"Simple", "Average", "Complex"};
+
+    public static final int COL_NAME = 0;
+    public static final int COL_TYPE = 1;
+    public static final int COL_DET = 2;
+    public static final int COL_REF = 3;
+    public static final int COL_COMPLEXITY = 4;
+    public static final int COL_WEIGHT = 5;
+    private static final String[] COLUMNS = {"Function", "Type", "DETs", "RETs/FTRs", "Complexity", "Weight"};
+
+    private String[] names = new String[256];
+    private byte[] types = new byte[256];
+    private int[] dets = new int[256];
+    private int[] refs = new int[256]; // RETs for ILF/EIF, FTRs for EI/EO/EQ
+    private byte[] complexities = new byte[256];
+    private int size;
+
+    private static final int SMALL_REMOVE = 32;
+
+    // rollup: functions per (type, complexity) and weight per type
+    private final int[][] counts = new int[FunctionPointEngine.ITEMS][3];
+    private final int[] weighted = new int[FunctionPointEngine.ITEMS];
+    private int totalWeighted;
+
+    // ----- rollup -----
+
+    public int count(int type) {
+        int[] c = counts[type];
+        return c[0] + c[1] + c[2];
+    }
+
+    public int count(int type, int complexity) { return counts[type][complexity]; }
+
+    public int weighted(int type) { return weighted[type]; }
+
+    public int totalWeighted() { return totalWeighted; }
+
+    /**
+     * The single complexity the FP tab (one per category) should use for {@code type}: the one
+     * whose weight times {@link #count(int)} comes closest to this category's weighted total.
+     * Average for an empty category.
+     */
+    public int summaryComplexity(int type) {
+        int n = count(type);
+        if (n == 0) return 1;
+        int best = 1;
+        long bestDiff = Long.MAX_VALUE;
+        for (int cx = 0; cx < 3; cx++) {
+            long diff = Math.abs((long) n * FunctionPointEngine.weight(type, cx) - weighted[type]);
+            if (diff < bestDiff) {
+                best = cx;
+                bestDiff = diff;
+            }
+        }
+        return best;
+    }
+
+    private void rollUp(int type, int complexity, int sign) {
+        int w = FunctionPointEngine.weight(type, complexity);
+        counts[type][complexity] += sign;
+        weighted[type] += sign * w;
+        totalWeighted += sign * w;
+    }
+
+    // ----- rows -----
+
+    public int type(int row) { return types[row]; }
+
+    public int complexity(int row) { return complexities[row]; }
+
+    public String name(int row) { return names[row]; }
+
+    public int det(int row) { return dets[row]; }
+
+    public int ref(int row) { return refs[row]; }
+
+    public int weight(int row) { return FunctionPointEngine.weight(types[row], complexities[row]); }
+
+    /** Appends one function and returns its model row. */
+    public int addFunction(String name, int type, int complexity) {
+        int row = append(name, type, complexity);
+        fireTableRowsInserted(row, row);
+        return row;
+    }
+
+    /** Appends many functions with a single table event (imports, generated data). */
+    public void addFunctions(String[] names, int[] types, int[] complexities, int n) {
+        if (n <= 0) return;
+        int first = size;
+        ensureCapacity(size + n);
+        for (int i = 0; i < n; i++) append(names[i], types[i], complexities[i]);
+        fireTableRowsInserted(first, size - 1);
+    }
+
+    /** Bulk import from DET and RET/FTR counts; complexities are derived in one classifier pass. */
+    public void addClassifiedFunctions(String[] names, int[] types, int[] dets, int[] refs, int n) {
+        if (n <= 0) return;
+        int[] cx = new int[n];
+        ComplexityClassifier.classify(n, types, dets, refs, cx, null);
+        int first = size;
+        ensureCapacity(size + n);
+        for (int i = 0; i < n; i++) {
+            int row = append(names[i], types[i], cx[i]);
+            this.dets[row] = Math.max(dets[i], 0);
+            this.refs[row] = Math.max(refs[i], 0);
+        }
+        fireTableRowsInserted(first, size - 1);
+    }
+
+    /** Removes the given model rows (any order). */
+    public void removeRows(int[] rows) {
+        if (rows.length == 0) return;
+        if (rows.length <= SMALL_REMOVE) {
+            // one event per row lets a row sorter patch its mapping instead of re-sorting
+            int[] sorted = rows.clone();
+            Arrays.sort(sorted);
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                int r = sorted[i];
+                if (i < sorted.length - 1 && sorted[i + 1] == r) continue;
+                rollUp(types[r], complexities[r], -1);
+                int tail = size - r - 1;
+                System.arraycopy(names, r + 1, names, r, tail);
+                System.arraycopy(types, r + 1, types, r, tail);
+                System.arraycopy(dets, r + 1, dets, r, tail);
+                System.arraycopy(refs, r + 1, refs, r, tail);
+                System.arraycopy(complexities, r + 1, complexities, r, tail);
+                names[--size] = null;
+                fireTableRowsDeleted(r, r);
+            }
+            return;
+        }
+
+        boolean[] drop = new boolean[size];
+        for (int r : rows) drop[r] = true;
+
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            if (drop[r]) {
+                rollUp(types[r], complexities[r], -1);
+                continue;
+            }
+            names[w] = names[r];
+            types[w] = types[r];
+            dets[w] = dets[r];
+            refs[w] = refs[r];
+            complexities[w] = complexities[r];
+            w++;
+        }
+        Arrays.fill(names, w, size, null);
+        size = w;
+        fireTableDataChanged();
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+        for (int[] c : counts) Arrays.fill(c, 0);
+        Arrays.fill(weighted, 0);
+        totalWeighted = 0;
+        fireTableDataChanged();
+    }
+
+    private int append(String name, int type, int complexity) {
+        if (type < 0 || type >= TYPES.length) throw new IllegalArgumentException("Unknown function type: " + type);
+        complexity = FunctionPointEngine.normalizeComplexity(complexity);
+        ensureCapacity(size + 1);
+        names[size] = name == null ? "" : name;
+        types[size] = (byte) type;
+        dets[size] = 0;
+        refs[size] = 0;
+        complexities[size] = (byte) complexity;
+        rollUp(type, complexity, +1);
+        return size++;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= names.length) return;
+        int cap = Math.max(n, names.length * 2);
+        names = Arrays.copyOf(names, cap);
+        types = Arrays.copyOf(types, cap);
+        dets = Arrays.copyOf(dets, cap);
+        refs = Arrays.copyOf(refs, cap);
+        complexities = Arrays.copyOf(complexities, cap);
+    }
+
+    public void setType(int row, int type) {
+        if (type < 0 || type >= TYPES.length) throw new IllegalArgumentException("Unknown function type: " + type);
+        if (type == types[row]) return;
+        rollUp(types[row], complexities[row], -1);
+        types[row] = (byte) type;
+        if (dets[row] > 0) complexities[row] = (byte) ComplexityClassifier.complexity(type, dets[row], refs[row]);
+        rollUp(type, complexities[row], +1);
+        fireTableRowsUpdated(row, row);
+    }
+
+    /** Sets DET and RET/FTR counts; with DETs > 0 the complexity is re-derived. */
+    public void setCounts(int row, int det, int ref) {
+        det = Math.max(det, 0);
+        ref = Math.max(ref, 0);
+        if (det == dets[row] && ref == refs[row]) return;
+        dets[row] = det;
+        refs[row] = ref;
+        if (det > 0) {
+            int cx = ComplexityClassifier.complexity(types[row], det, ref);
+            if (cx != complexities[row]) {
+                rollUp(types[row], complexities[row], -1);
+                complexities[row] = (byte) cx;
+                rollUp(types[row], cx, +1);
+            }
+        }
+        fireTableRowsUpdated(row, row);
+    }
+
+    public void setComplexity(int row, int complexity) {
+        complexity = FunctionPointEngine.normalizeComplexity(complexity);
+        if (complexity == complexities[row]) return;
+        rollUp(types[row], complexities[row], -1);
+        complexities[row] = (byte) complexity;
+        rollUp(types[row], complexity, +1);
+        fireTableRowsUpdated(row, row);
+    }
+
+    // ----- TableModel -----
+
+    @Override public int getRowCount() { return size; }
+
+    @Override public int getColumnCount() { return COLUMNS.length; }
+
+    @Override public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (column) {
+            case COL_DET, COL_REF, COL_WEIGHT -> Integer.class;
+            default -> String.class;
+        };
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column != COL_WEIGHT;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return switch (column) {
+            case COL_NAME -> names[row];
+            case COL_TYPE -> TYPES[types[row]];
+            case COL_DET -> dets[row];
+            case COL_REF -> refs[row];
+            case COL_COMPLEXITY -> COMPLEXITIES[complexities[row]];
+            default -> weight(row); // small ints come from the Integer cache
+        };
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        switch (column) {
+            case COL_NAME -> {
+                names[row] = value == null ? "" : value.toString();
+                fireTableCellUpdated(row, column);
+            }
+            case COL_TYPE -> {
+                int t = indexOf(TYPES, value);
+                if (t >= 0) setType(row, t);
+            }
+            case COL_DET -> {
+                if (value instanceof Integer v) setCounts(row, v, refs[row]);
+            }
+            case COL_REF -> {
+                if (value instanceof Integer v) setCounts(row, dets[row], v);
+            }
+            case COL_COMPLEXITY -> {
+                int c = indexOf(COMPLEXITIES, value);
+                if (c >= 0) setComplexity(row, c);
+            }
+            default -> {}
+        }
+    }
+
+    static int indexOf(String[] labels, Object value) {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
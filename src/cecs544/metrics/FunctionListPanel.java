@@ -0,0 +1,232 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-function counting view: every EI/EO/EQ/ILF/EIF is its own row with its own complexity.
+ *
+ * JTable only paints the rows in the viewport, the model is columnar, and the category totals
+ * are a running rollup, so editing one row of 100k costs the same as editing one row of ten.
+ */
+public class FunctionListPanel extends JPanel {
+
+    private final FunctionListModel model = new FunctionListModel();
+    private final JTable table = new JTable(model);
+    private final TableRowSorter<FunctionListModel> sorter = new TableRowSorter<>(model);
+
+    private final JTextField filterField = new JTextField(16);
+    private final JComboBox<String> typeFilter = new JComboBox<>();
+    private final JLabel[] categoryLabels = new JLabel[FunctionPointEngine.ITEMS];
+    private final JLabel rowsLabel = new JLabel();
+    private final JLabel ufpLabel = new JLabel();
+    private final JLabel fpLabel = new JLabel();
+    private final DecimalFormat fpFmt = new DecimalFormat("#,##0.0");
+
+    // VAF sum comes from the FP tab / project, which owns the VAF values
+    private final Supplier<ProjectModel.FPState> vafSource;
+    // receives the per-category rollup as an FP state for the FP tab / project
+    private final Consumer<ProjectModel.FPState> onApply;
+    private boolean totalsPending = false;
+
+    public FunctionListPanel(Supplier<ProjectModel.FPState> vafSource, Consumer<ProjectModel.FPState> onApply) {
+        this.vafSource = vafSource;
+        this.onApply = onApply;
+
+        setLayout(new BorderLayout(10, 10));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        table.setRowSorter(sorter);
+        table.setFillsViewportHeight(true);
+        table.setAutoCreateColumnsFromModel(false);
+        table.getColumnModel().getColumn(FunctionListModel.COL_NAME).setPreferredWidth(360);
+        table.getColumnModel().getColumn(FunctionListModel.COL_TYPE).setCellEditor(
+                new DefaultCellEditor(new JComboBox<>(FunctionListModel.TYPES)));
+        table.getColumnModel().getColumn(FunctionListModel.COL_COMPLEXITY).setCellEditor(
+                new DefaultCellEditor(new JComboBox<>(FunctionListModel.COMPLEXITIES)));
+
+        // the default Collator is far too slow for 100k names; categories and complexities
+        // sort in their natural order, not alphabetically
+        sorter.setComparator(FunctionListModel.COL_NAME, String.CASE_INSENSITIVE_ORDER);
+        sorter.setComparator(FunctionListModel.COL_TYPE, labelOrder(FunctionListModel.TYPES));
+        sorter.setComparator(FunctionListModel.COL_COMPLEXITY, labelOrder(FunctionListModel.COMPLEXITIES));
+        sorter.setSortsOnUpdates(true);
+
+        table.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "removeFunctions");
+        table.getActionMap().put("removeFunctions", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { removeSelected(); }
+        });
+
+        add(buildToolbar(), BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buildTotals(), BorderLayout.SOUTH);
+
+        model.addTableModelListener(this::modelChanged);
+        updateTotals();
+    }
+
+    public FunctionListModel getModel() {
+        return model;
+    }
+
+    private JComponent buildToolbar() {
+        JPanel p = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        JButton add = new JButton("Add Function");
+        JButton remove = new JButton("Remove Selected");
+        JButton apply = new JButton("Use in FP Tab");
+        add.addActionListener(e -> addFunction());
+        remove.addActionListener(e -> removeSelected());
+        apply.addActionListener(e -> applyToFpTab());
+
+        typeFilter.addItem("All types");
+        for (String t : FunctionListModel.TYPES) typeFilter.addItem(t);
+        typeFilter.addActionListener(e -> applyFilter());
+        filterField.getDocument().addDocumentListener((FunctionPointsPanel.SimpleDocListener) e -> applyFilter());
+
+        p.add(add);
+        p.add(remove);
+        p.add(apply);
+        p.add(Box.createHorizontalStrut(16));
+        p.add(new JLabel("Filter:"));
+        p.add(filterField);
+        p.add(typeFilter);
+        p.add(rowsLabel);
+        return p;
+    }
+
+    private JComponent buildTotals() {
+        JPanel p = new JPanel(new GridLayout(2, 1, 4, 4));
+        p.setBorder(new TitledBorder("Totals"));
+
+        JPanel categories = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 0));
+        for (int i = 0; i < categoryLabels.length; i++) {
+            categoryLabels[i] = new JLabel();
+            categories.add(categoryLabels[i]);
+        }
+
+        JPanel overall = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 0));
+        overall.add(ufpLabel);
+        overall.add(fpLabel);
+
+        p.add(categories);
+        p.add(overall);
+        return p;
+    }
+
+    private void addFunction() {
+        int type = typeFilter.getSelectedIndex() > 0 ? typeFilter.getSelectedIndex() - 1 : 0;
+        int row = model.addFunction("New function", type, 1);
+        int view = table.convertRowIndexToView(row);
+        if (view >= 0) {
+            table.getSelectionModel().setSelectionInterval(view, view);
+            table.scrollRectToVisible(table.getCellRect(view, 0, true));
+            table.editCellAt(view, FunctionListModel.COL_NAME);
+        }
+    }
+
+    private void removeSelected() {
+        if (table.isEditing()) table.getCellEditor().cancelCellEditing();
+        int[] view = table.getSelectedRows();
+        int[] rows = new int[view.length];
+        for (int i = 0; i < view.length; i++) rows[i] = table.convertRowIndexToModel(view[i]);
+        model.removeRows(rows);
+    }
+
+    /**
+     * Hands the per-category counts to the FP tab (and so to LOC and the saved project). The FP
+     * tab has one complexity per category, so each gets {@link FunctionListModel#summaryComplexity};
+     * VAF values and language are kept from the current FP state.
+     */
+    public ProjectModel.FPState exportState() {
+        ProjectModel.FPState current = vafSource.get();
+        ProjectModel.FPState s = new ProjectModel.FPState();
+        if (current != null) {
+            s.language = current.language;
+            s.vafValues = current.vafValues.clone();
+        }
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            s.counts[i] = model.count(i);
+            s.complexities[i] = model.summaryComplexity(i);
+        }
+        s.totalWeighted = FunctionPointEngine.totalWeighted(s.counts, s.complexities);
+        s.vafSum = FunctionPointEngine.vafSum(s.vafValues);
+        s.fpFormatted = fpFmt.format(FunctionPointEngine.functionPoints(s.totalWeighted, s.vafSum));
+        return s;
+    }
+
+    private void applyToFpTab() {
+        if (table.isEditing()) table.getCellEditor().stopCellEditing();
+        ProjectModel.FPState s = exportState();
+        onApply.accept(s);
+        if (s.totalWeighted != model.totalWeighted()) {
+            JOptionPane.showMessageDialog(this, String.format(
+                    "The FP tab uses one complexity per category, so its unadjusted FP is %,d (function list: %,d).",
+                    s.totalWeighted, model.totalWeighted()), "Use in FP Tab", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    private void applyFilter() {
+        String text = filterField.getText().trim().toLowerCase();
+        int type = typeFilter.getSelectedIndex() - 1;
+        if (text.isEmpty() && type < 0) {
+            sorter.setRowFilter(null);
+        } else {
+            sorter.setRowFilter(new RowFilter<>() {
+                @Override
+                public boolean include(Entry<? extends FunctionListModel, ? extends Integer> entry) {
+                    int row = entry.getIdentifier();
+                    FunctionListModel m = entry.getModel();
+                    return (type < 0 || m.type(row) == type)
+                            && (text.isEmpty() || m.name(row).toLowerCase().contains(text));
+                }
+            });
+        }
+        updateRowsLabel();
+    }
+
+    // the rollup is already current; only the labels need refreshing, once per EDT cycle
+    private void modelChanged(TableModelEvent e) {
+        if (totalsPending) return;
+        totalsPending = true;
+        SwingUtilities.invokeLater(this::updateTotals);
+    }
+
+    /** Re-reads the VAF sum (e.g. after the FP tab's VAF dialog) and refreshes the totals. */
+    public void updateTotals() {
+        totalsPending = false;
+        for (int i = 0; i < categoryLabels.length; i++) {
+            categoryLabels[i].setText(String.format("%s: %,d (%,d)",
+                    FunctionListModel.TYPES[i], model.count(i), model.weighted(i)));
+        }
+        ProjectModel.FPState s = vafSource.get();
+        int vafSum = s != null ? FunctionPointEngine.vafSum(s.vafValues) : 0;
+        ufpLabel.setText(String.format("Unadjusted FP: %,d", model.totalWeighted()));
+        fpLabel.setText("Function Points (VAF sum " + vafSum + "): "
+                + fpFmt.format(FunctionPointEngine.functionPoints(model.totalWeighted(), vafSum)));
+        updateRowsLabel();
+    }
+
+    private void updateRowsLabel() {
+        int shown = table.getRowCount();
+        int total = model.getRowCount();
+        rowsLabel.setText(shown == total ? String.format("%,d functions", total)
+                : String.format("%,d of %,d functions", shown, total));
+    }
+
+    private static Comparator<String> labelOrder(String[] labels) {
+        List<String> order = new ArrayList<>(List.of(labels));
+        return Comparator.comparingInt(order::indexOf);
+    }
+}
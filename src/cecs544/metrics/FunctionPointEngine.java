@@ -0,0 +1,200 @@
+package cecs544.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * UI-free Function Point math shared by the Swing panel and batch tools.
+ *
+ * FP = UFP * (0.65 + 0.01 * VAF_SUM), LOC = FP * LOC/FP for the language.
+ * The batch methods write into caller-owned arrays/results so nothing is
+ * allocated per record. {@link #computeColumns} is the bulk kernel for columnar data and
+ * works in exact fixed point (FP x 100).
+ */
+public final class FunctionPointEngine {
+
+    // Standard IFPUG weights (common defaults)
+    // You can adjust if your class uses different weights.
+    private static final int[][] WEIGHTS = {
+            // Simple, Average, Complex
+            {3, 4, 6},   // External Inputs
+            {4, 5, 7},   // External Outputs
+            {3, 4, 6},   // External Inquiries
+            {7, 10, 15}, // Internal Logical Files
+            {5, 7, 10}   // External Interface Files
+    };
+
+    public static final int ITEMS = 5;
+    public static final int VAF_FACTORS = 14;
+
+    /** Language ids for columnar data; id 0 is "unknown" (default LOC/FP). */
+    public static final String[] LANGUAGES = {null, "Java", "C++", "C#", "Python", "Ruby", "Objective-C"};
+    private static final long[] LOC_PER_FP_BY_ID = new long[LANGUAGES.length];
+
+    // 2 * weight(cx) = A + B*cx + Q*cx*(cx-1) for cx in 0..2, so the kernel needs no table lookup
+    private static final int[] A = new int[ITEMS];
+    private static final int[] B = new int[ITEMS];
+    private static final int[] Q = new int[ITEMS];
+
+    static {
+        for (int id = 0; id < LANGUAGES.length; id++) LOC_PER_FP_BY_ID[id] = (long) locPerFp(LANGUAGES[id]);
+        for (int i = 0; i < ITEMS; i++) {
+            int w0 = WEIGHTS[i][0], w1 = WEIGHTS[i][1], w2 = WEIGHTS[i][2];
+            A[i] = 2 * w0;
+            B[i] = 2 * (w1 - w0);
+            Q[i] = w2 - 2 * w1 + w0;
+        }
+    }
+
+    private FunctionPointEngine() {}
+
+    /** Reusable output holder for {@link #compute}. */
+    public static final class Result {
+        public int totalWeighted;
+        public int vafSum;
+        public double fp;
+        public double loc;
+    }
+
+    public static int weight(int item, int complexity) {
+        return WEIGHTS[item][normalizeComplexity(complexity)];
+    }
+
+    // Anything outside Simple/Average/Complex falls back to Average, like the panel does.
+    public static int normalizeComplexity(int complexity) {
+        return (complexity < 0 || complexity > 2) ? 1 : complexity;
+    }
+
+    public static int weighted(int item, int count, int complexity) {
+        return Math.max(count, 0) * weight(item, complexity);
+    }
+
+    public static int totalWeighted(int[] counts, int[] complexities) {
+        int total = 0;
+        for (int i = 0; i < ITEMS; i++) {
+            total += weighted(i, counts[i], complexities[i]);
+        }
+        return total;
+    }
+
+    public static int vafSum(int[] vafValues) {
+        int sum = 0;
+        for (int v : vafValues) sum += v;
+        return sum;
+    }
+
+    public static double functionPoints(int totalWeighted, int vafSum) {
+        // Standard FP adjustment formula: FP = UFP * (0.65 + 0.01*VAFsum)
+        return functionPoints100(totalWeighted, vafSum) / 100.0;
+    }
+
+    /** Exact FP x 100: UFP * (65 + VAF sum). */
+    public static long functionPoints100(int totalWeighted, int vafSum) {
+        return (long) totalWeighted * (65 + vafSum);
+    }
+
+    public static int languageId(String lang) {
+        for (int id = 1; id < LANGUAGES.length; id++) {
+            if (LANGUAGES[id].equals(lang)) return id;
+        }
+        return 0;
+    }
+
+    public static double locPerFp(String lang) {
+        if (lang == null) return 50;
+        // Simple common table. Adjust to match your class if needed.
+        return switch (lang) {
+            case "Java" -> 53;
+            case "C++" -> 55;
+            case "C#" -> 58;
+            case "Python" -> 21;
+            case "Ruby" -> 21;
+            case "Objective-C" -> 30;
+            default -> 50;
+        };
+    }
+
+    public static double linesOfCode(double fp, String lang) {
+        return fp * locPerFp(lang);
+    }
+
+    public static Result compute(ProjectModel.FPState s, Result out) {
+        return compute(s.counts, s.complexities, s.vafValues, s.language, out);
+    }
+
+    public static Result compute(int[] counts, int[] complexities, int[] vafValues, String lang, Result out) {
+        out.totalWeighted = totalWeighted(counts, complexities);
+        out.vafSum = vafSum(vafValues);
+        out.fp = functionPoints(out.totalWeighted, out.vafSum);
+        out.loc = linesOfCode(out.fp, lang);
+        return out;
+    }
+
+    /**
+     * Computes every state in {@code states}; output arrays must be at least {@code states.size()} long.
+     */
+    public static void computeAll(List<ProjectModel.FPState> states,
+                                  int[] totalWeighted, int[] vafSum, double[] fp, double[] loc) {
+        for (int r = 0; r < states.size(); r++) {
+            ProjectModel.FPState s = states.get(r);
+            int ufp = totalWeighted(s.counts, s.complexities);
+            int vs = vafSum(s.vafValues);
+            double f = functionPoints(ufp, vs);
+            totalWeighted[r] = ufp;
+            vafSum[r] = vs;
+            fp[r] = f;
+            loc[r] = linesOfCode(f, s.language);
+        }
+    }
+
+    /**
+     * Row-major primitive variant: record r uses counts[r*5..r*5+4], complexities[r*5..r*5+4]
+     * and vafValues[r*14..r*14+13]. Languages may be null (default LOC/FP).
+     */
+    public static void computeAll(int n, int[] counts, int[] complexities, int[] vafValues, String[] languages,
+                                  int[] totalWeighted, int[] vafSum, double[] fp, double[] loc) {
+        for (int r = 0; r < n; r++) {
+            int base = r * ITEMS;
+            int ufp = 0;
+            for (int i = 0; i < ITEMS; i++) {
+                ufp += weighted(i, counts[base + i], complexities[base + i]);
+            }
+            int vafBase = r * VAF_FACTORS;
+            int vs = 0;
+            for (int k = 0; k < VAF_FACTORS; k++) vs += vafValues[vafBase + k];
+
+            double f = functionPoints(ufp, vs);
+            totalWeighted[r] = ufp;
+            vafSum[r] = vs;
+            fp[r] = f;
+            loc[r] = linesOfCode(f, languages == null ? null : languages[r]);
+        }
+    }
+
+    /**
+     * Bulk kernel over columnar data: {@code counts[item][r]}, {@code complexities[item][r]},
+     * {@code vafSum[r]} and {@code languageId[r]} (see {@link #languageId}) for r in [0, n).
+     * Writes UFP, FP x 100 and LOC x 100. Everything is accumulated in long, so the results are
+     * exact for any int counts. The loops are branch-free (weights come from a polynomial in the
+     * complexity rather than a table). Inputs are expected to be clean: counts >= 0, complexities 0..2.
+     */
+    public static void computeColumns(int n, int[][] counts, int[][] complexities, int[] vafSum, int[] languageId,
+                                      long[] ufpOut, long[] fp100Out, long[] loc100Out) {
+        Arrays.fill(ufpOut, 0, n, 0);
+        for (int i = 0; i < ITEMS; i++) {
+            int[] c = counts[i];
+            int[] x = complexities[i];
+            int a = A[i], b = B[i], q = Q[i];
+            for (int r = 0; r < n; r++) {
+                int cx = x[r];
+                ufpOut[r] += (long) c[r] * ((a + b * cx + q * cx * (cx - 1)) >> 1);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            fp100Out[r] = ufpOut[r] * (65 + vafSum[r]);
+        }
+        for (int r = 0; r < n; r++) {
+            loc100Out[r] = fp100Out[r] * LOC_PER_FP_BY_ID[languageId[r]];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cecs544.metrics;
+
+/**
+ * Running FP totals that are updated by deltas instead of recomputed.
+ *
+ * Changing one row's count or complexity adjusts only that row's weighted value and UFP;
+ * changing one VAF value adjusts only the VAF sum. Not thread-safe (EDT use).
+ */
+public class FunctionPointTally {
+
+    private final int[] counts = new int[FunctionPointEngine.ITEMS];
+    private final int[] complexities = {1, 1, 1, 1, 1}; // default Average
+    private final int[] weighted = new int[FunctionPointEngine.ITEMS];
+    private final int[] vafValues = new int[FunctionPointEngine.VAF_FACTORS];
+
+    private int totalWeighted;
+    private int vafSum;
+
+    public int count(int item) { return counts[item]; }
+
+    public int complexity(int item) { return complexities[item]; }
+
+    public int weighted(int item) { return weighted[item]; }
+
+    public int vafValue(int factor) { return vafValues[factor]; }
+
+    public int totalWeighted() { return totalWeighted; }
+
+    public int vafSum() { return vafSum; }
+
+    public double functionPoints() {
+        return FunctionPointEngine.functionPoints(totalWeighted, vafSum);
+    }
+
+    /** Returns true if the row's weighted value changed. */
+    public boolean setCount(int item, int count) {
+        count = Math.max(count, 0);
+        if (counts[item] == count) return false;
+        counts[item] = count;
+        return reweigh(item);
+    }
+
+    /**
+     * Returns true if the stored complexity changed, even when the row's weighted value did not
+     * (a zero count); compare {@link #weighted} before and after to tell the two apart.
+     */
+    public boolean setComplexity(int item, int complexity) {
+        complexity = FunctionPointEngine.normalizeComplexity(complexity);
+        if (complexities[item] == complexity) return false;
+        complexities[item] = complexity;
+        reweigh(item);
+        return true;
+    }
+
+    public void setVafValue(int factor, int value) {
+        vafSum += value - vafValues[factor];
+        vafValues[factor] = value;
+    }
+
+    public void setVafValues(int[] values) {
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+            if (values[k] != vafValues[k]) setVafValue(k, values[k]);
+        }
+    }
+
+    public int[] countsCopy() { return counts.clone(); }
+
+    public int[] complexitiesCopy() { return complexities.clone(); }
+
+    public int[] vafValuesCopy() { return vafValues.clone(); }
+
+    private boolean reweigh(int item) {
+        int w = FunctionPointEngine.weighted(item, counts[item], complexities[item]);
+        int delta = w - weighted[item];
+        if (delta == 0) return false;
+        weighted[item] = w;
+        totalWeighted += delta;
+        return true;
+    }
+}
@@ -16,16 +16,8 @@ public class FunctionPointsPanel extends JPanel {
             "External Interface Files"
     };
 
-    // Standard IFPUG weights (common defaults)
-    // You can adjust if your class uses different weights.
-    private static final int[][] WEIGHTS = {
-            // Simple, Average, Complex
-            {3, 4, 6},   // External Inputs
-            {4, 5, 7},   // External Outputs
-            {3, 4, 6},   // External Inquiries
-            {7, 10, 15}, // Internal Logical Files
-            {5, 7, 10}   // External Interface Files
-    };
+    private static final Metrics.Timer RECALC_TIMER = Metrics.timer("fp.recalcAndUpdate");
+    private static final Metrics.Timer EXPORT_TIMER = Metrics.timer("fp.exportState");
 
     private final JTextField[] countFields = new JTextField[5];
     private final ButtonGroup[] complexityGroups = new ButtonGroup[5];
@@ -38,9 +30,17 @@ public class FunctionPointsPanel extends JPanel {
     private final JLabel currentLanguageLabel = new JLabel("None");
     private final JTextField codeSizeOutput = new JTextField("");
 
-    private int[] vafValues = new int[14]; // 14 GSCs (0..5), typical FP VAF scheme
     private final DecimalFormat fpFmt = new DecimalFormat("#,##0.0");
 
+    // running totals: each edit applies only its own delta (14 GSCs, 0..5 each, live in here too)
+    private final FunctionPointTally tally = new FunctionPointTally();
+    private int dirtyRows = 0x1F; // rows whose weighted label needs repainting
+
+    // recalculation scheduling: edits mark the panel dirty, one recompute runs per EDT cycle
+    private boolean recalcPending = false;
+    private int batchDepth = 0;
+    private boolean dirtyInBatch = false;
+
     private final JFrame owner;
     private final Consumer<ProjectModel.FPState> onStateChanged;
 
@@ -118,10 +118,11 @@ public class FunctionPointsPanel extends JPanel {
             grid.add(w, g);
 
             // listeners
-            tf.getDocument().addDocumentListener((SimpleDocListener) e -> recalcAndUpdate());
-            simple.addActionListener(e -> recalcAndUpdate());
-            avg.addActionListener(e -> recalcAndUpdate());
-            complex.addActionListener(e -> recalcAndUpdate());
+            final int item = i;
+            tf.getDocument().addDocumentListener((SimpleDocListener) e -> onCountEdited(item));
+            simple.addActionListener(e -> onComplexityChosen(item, 0));
+            avg.addActionListener(e -> onComplexityChosen(item, 1));
+            complex.addActionListener(e -> onComplexityChosen(item, 2));
         }
 
         // totals row
@@ -176,17 +177,17 @@ public class FunctionPointsPanel extends JPanel {
     }
 
     private void openVafDialog() {
-        VafDialog dlg = new VafDialog(owner, vafValues);
+        VafDialog dlg = VafDialog.forOwner(owner, tally.vafValuesCopy());
         dlg.setVisible(true);
 
         if (dlg.isOk()) {
-            vafValues = dlg.getValues();
+            tally.setVafValues(dlg.getValues());
             recalcAndUpdate();
         }
     }
 
     private void openLanguageDialog() {
-        LanguageDialog dlg = new LanguageDialog(owner, currentLanguageLabel.getText());
+        LanguageDialog dlg = LanguageDialog.forOwner(owner, currentLanguageLabel.getText());
         dlg.setVisible(true);
         if (dlg.getSelectedLanguage() != null) {
             setCurrentLanguage(dlg.getSelectedLanguage());
@@ -198,18 +199,6 @@ public class FunctionPointsPanel extends JPanel {
         currentLanguageLabel.setText(lang == null ? "None" : lang);
     }
 
-    private int getSelectedComplexityIndex(ButtonGroup bg) {
-        // order: Simple, Average, Complex
-        // We find which radio is selected by iterating buttons in insertion order.
-        int idx = 0;
-        for (var e = bg.getElements(); e.hasMoreElements(); ) {
-            AbstractButton b = e.nextElement();
-            if (b.isSelected()) return idx;
-            idx++;
-        }
-        return 1; // fallback average
-    }
-
     private int parseNonNegativeInt(String s) {
         s = s.trim();
         if (s.isEmpty()) return 0;
@@ -217,108 +206,134 @@ public class FunctionPointsPanel extends JPanel {
         return Math.max(v, 0);
     }
 
-    private void recalcAndUpdate() {
-        int totalWeighted = 0;
-
-        for (int i = 0; i < 5; i++) {
-            int count;
-            try {
-                count = parseNonNegativeInt(countFields[i].getText());
-            } catch (Exception ex) {
-                count = 0;
+    private void onCountEdited(int item) {
+        int count;
+        try {
+            count = parseNonNegativeInt(countFields[item].getText());
+        } catch (Exception ex) {
+            count = 0;
+        }
+        if (tally.setCount(item, count)) {
+            dirtyRows |= 1 << item;
+            requestRecalc();
+        }
+    }
+
+    private void onComplexityChosen(int item, int complexity) {
+        int before = tally.weighted(item);
+        if (tally.setComplexity(item, complexity)) {
+            if (tally.weighted(item) != before) dirtyRows |= 1 << item;
+            requestRecalc(); // the choice is part of the saved state even when a zero count keeps the weight
+        }
+    }
+
+    /**
+     * Marks the panel dirty. Any number of calls within one EDT cycle (or one
+     * {@link #runBatch} transaction) collapse into a single recalculation.
+     */
+    private void requestRecalc() {
+        if (batchDepth > 0) {
+            dirtyInBatch = true;
+            return;
+        }
+        if (recalcPending) return;
+        recalcPending = true;
+        SwingUtilities.invokeLater(() -> {
+            if (recalcPending) recalcAndUpdate();
+        });
+    }
+
+    /** Runs {@code updates} with recalculation suspended, then recomputes once if anything changed. */
+    public void runBatch(Runnable updates) {
+        batchDepth++;
+        try {
+            updates.run();
+        } finally {
+            if (--batchDepth == 0 && dirtyInBatch) {
+                dirtyInBatch = false;
+                recalcAndUpdate();
             }
-            int cx = getSelectedComplexityIndex(complexityGroups[i]); // 0/1/2
-            int weighted = count * WEIGHTS[i][cx];
-            weightedLabels[i].setText(String.valueOf(weighted));
-            totalWeighted += weighted;
         }
+    }
 
-        int vafSum = 0;
-        for (int v : vafValues) vafSum += v;
+    // Totals are already current in the tally; this only repaints what changed and notifies the model.
+    @SuppressWarnings("try")
+    private void recalcAndUpdate() {
+        recalcPending = false;
 
-        totalCountLabel.setText(String.valueOf(totalWeighted));
-        vafSumLabel.setText(String.valueOf(vafSum));
+        try (Metrics.Scope ignored = RECALC_TIMER.start()) {
+            for (int i = 0; i < 5; i++) {
+                if ((dirtyRows & (1 << i)) != 0) {
+                    weightedLabels[i].setText(String.valueOf(tally.weighted(i)));
+                }
+            }
+            dirtyRows = 0;
 
-        // Standard FP adjustment formula: FP = UFP * (0.65 + 0.01*VAFsum)
-        double fp = totalWeighted * (0.65 + 0.01 * vafSum);
+            totalCountLabel.setText(String.valueOf(tally.totalWeighted()));
+            vafSumLabel.setText(String.valueOf(tally.vafSum()));
 
-        fpOutput.setText(fpFmt.format(fp));
+            fpOutput.setText(fpFmt.format(tally.functionPoints()));
 
-        // notify model
-        if (onStateChanged != null) {
-            onStateChanged.accept(exportState());
+            // notify model
+            if (onStateChanged != null) {
+                onStateChanged.accept(exportState());
+            }
         }
     }
 
     private void computeCodeSize() {
-        double fp;
-        try {
-            fp = fpFmt.parse(fpOutput.getText()).doubleValue();
-        } catch (Exception ex) {
-            fp = 0;
-        }
-
         String lang = currentLanguageLabel.getText();
         if (lang == null || lang.equals("None") || lang.isBlank()) {
             JOptionPane.showMessageDialog(owner, "Please select a language first.", "Language Required", JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        double locPerFp = locPerFp(lang);
-        double loc = fp * locPerFp;
+        // exact fixed point from the running totals instead of re-parsing the formatted FP
+        long fp100 = FunctionPointEngine.functionPoints100(tally.totalWeighted(), tally.vafSum());
+        double locPerFp = FunctionPointEngine.locPerFp(lang);
+        double loc = fp100 * (long) locPerFp / 100.0;
         codeSizeOutput.setText(String.format("%,.0f LOC (%.0f LOC/FP)", loc, locPerFp));
     }
 
-    private double locPerFp(String lang) {
-        // Simple common table. Adjust to match your class if needed.
-        return switch (lang) {
-            case "Java" -> 53;
-            case "C++" -> 55;
-            case "C#" -> 58;
-            case "Python" -> 21;
-            case "Ruby" -> 21;
-            case "Objective-C" -> 30;
-            default -> 50;
-        };
-    }
-
     // ----- Save/load state -----
+    @SuppressWarnings("try")
     public ProjectModel.FPState exportState() {
-        ProjectModel.FPState s = new ProjectModel.FPState();
-        s.language = currentLanguageLabel.getText();
-
-        s.counts = new int[5];
-        s.complexities = new int[5];
-        for (int i = 0; i < 5; i++) {
-            try {
-                s.counts[i] = parseNonNegativeInt(countFields[i].getText());
-            } catch (Exception ex) {
-                s.counts[i] = 0;
-            }
-            s.complexities[i] = getSelectedComplexityIndex(complexityGroups[i]);
+        // an edit may still be waiting for its coalesced recalculation
+        if (recalcPending && batchDepth == 0) recalcAndUpdate();
+
+        try (Metrics.Scope ignored = EXPORT_TIMER.start()) {
+            ProjectModel.FPState s = new ProjectModel.FPState();
+            s.language = currentLanguageLabel.getText();
+            s.counts = tally.countsCopy();
+            s.complexities = tally.complexitiesCopy();
+            s.vafValues = tally.vafValuesCopy();
+            s.totalWeighted = tally.totalWeighted();
+            s.vafSum = tally.vafSum();
+            s.fpFormatted = fpOutput.getText();
+            return s;
         }
-
-        s.vafValues = vafValues.clone();
-        s.totalWeighted = Integer.parseInt(totalCountLabel.getText());
-        s.vafSum = Integer.parseInt(vafSumLabel.getText());
-        s.fpFormatted = fpOutput.getText();
-        return s;
     }
 
     public void loadFromState(ProjectModel.FPState s) {
         if (s == null) return;
-        setCurrentLanguage(s.language);
 
-        for (int i = 0; i < 5; i++) {
-            countFields[i].setText(String.valueOf(s.counts[i]));
-            setComplexitySelection(complexityGroups[i], s.complexities[i]);
-        }
+        runBatch(() -> {
+            setCurrentLanguage(s.language);
 
-        if (s.vafValues != null && s.vafValues.length == 14) {
-            vafValues = s.vafValues.clone();
-        }
+            for (int i = 0; i < 5; i++) {
+                countFields[i].setText(String.valueOf(s.counts[i]));
+                int cx = FunctionPointEngine.normalizeComplexity(s.complexities[i]);
+                setComplexitySelection(complexityGroups[i], cx);
+                int before = tally.weighted(i);
+                tally.setComplexity(i, cx);
+                if (tally.weighted(i) != before) dirtyRows |= 1 << i;
+            }
 
-        recalcAndUpdate();
+            if (s.vafValues != null && s.vafValues.length == 14) {
+                tally.setVafValues(s.vafValues);
+            }
+            dirtyInBatch = true;
+        });
     }
 
     private void setComplexitySelection(ButtonGroup bg, int idx) {
@@ -0,0 +1,68 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.DecimalFormat;
+
+/** Simple bar chart for FP histograms (bins of equal width starting at {@code start}). */
+public class HistogramPanel extends JPanel {
+
+    private static final int MAX_BARS = 120;
+
+    private long[] bars = new long[0];
+    private double start, width;
+    private final DecimalFormat fmt = new DecimalFormat("#,##0.0");
+
+    public HistogramPanel() {
+        setPreferredSize(new Dimension(420, 180));
+        setBackground(Color.WHITE);
+    }
+
+    /** Shows {@code counts}; adjacent bins are merged so at most MAX_BARS bars are drawn. */
+    public void setHistogram(long[] counts, double start, double binWidth) {
+        int merge = Math.max(1, (counts.length + MAX_BARS - 1) / MAX_BARS);
+        long[] merged = new long[(counts.length + merge - 1) / merge];
+        for (int i = 0; i < counts.length; i++) merged[i / merge] += counts[i];
+
+        // trim empty bins at both ends
+        int first = 0, last = merged.length - 1;
+        while (first < last && merged[first] == 0) first++;
+        while (last > first && merged[last] == 0) last--;
+
+        this.bars = java.util.Arrays.copyOfRange(merged, first, last + 1);
+        this.width = binWidth * merge;
+        this.start = start + first * this.width;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (bars.length == 0) return;
+
+        Insets in = getInsets();
+        int labelH = g.getFontMetrics().getHeight();
+        int x0 = in.left + 6, y0 = in.top + 6;
+        int w = getWidth() - in.left - in.right - 12;
+        int h = getHeight() - in.top - in.bottom - 12 - labelH;
+
+        long peak = 1;
+        for (long b : bars) peak = Math.max(peak, b);
+
+        g.setColor(new Color(70, 110, 180));
+        for (int i = 0; i < bars.length; i++) {
+            int bx = x0 + (int) ((long) i * w / bars.length);
+            int bw = Math.max(1, x0 + (int) ((long) (i + 1) * w / bars.length) - bx - 1);
+            int bh = (int) (bars[i] * h / peak);
+            g.fillRect(bx, y0 + h - bh, bw, bh);
+        }
+
+        g.setColor(Color.DARK_GRAY);
+        g.drawLine(x0, y0 + h, x0 + w, y0 + h);
+        String left = fmt.format(start);
+        String right = fmt.format(start + bars.length * width);
+        int ty = y0 + h + labelH;
+        g.drawString(left, x0, ty);
+        g.drawString(right, x0 + w - g.getFontMetrics().stringWidth(right), ty);
+    }
+}
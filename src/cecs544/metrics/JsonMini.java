@@ -1,5 +1,11 @@
 package cecs544.metrics;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -9,57 +15,682 @@ import java.util.*;
  * - strings, numbers, booleans, null
  *
  * Good enough for the .ms project file in Iteration 1.
+ *
+ * {@link PullParser} is the streaming counterpart of {@link #parse(String)}: it reads
+ * tokens straight from a Reader through a small fixed buffer without building a tree.
+ * {@link Generator} is the streaming counterpart of {@link #stringify(Object)}.
  */
 public class JsonMini {
 
+    private static final Metrics.Timer PARSE_TIMER = Metrics.timer("json.parse");
+    private static final Metrics.Timer STRINGIFY_TIMER = Metrics.timer("json.stringify");
+
     public static String stringify(Object obj) {
         StringBuilder sb = new StringBuilder();
-        writeValue(sb, obj);
+        try (Metrics.Scope scope = STRINGIFY_TIMER.start()) {
+            write(new BuilderWriter(sb), obj);
+            scope.bytes(sb.length());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // cannot happen for an in-memory builder
+        }
         return sb.toString();
     }
 
-    private static void writeValue(StringBuilder sb, Object v) {
-        if (v == null) {
-            sb.append("null");
-        } else if (v instanceof String s) {
-            sb.append('"').append(escape(s)).append('"');
-        } else if (v instanceof Number || v instanceof Boolean) {
-            sb.append(v.toString());
-        } else if (v instanceof Map<?, ?> map) {
-            sb.append("{");
-            boolean first = true;
-            for (var entry : map.entrySet()) {
-                if (!first) sb.append(",");
-                first = false;
-                sb.append('"').append(escape(String.valueOf(entry.getKey()))).append("\":");
-                writeValue(sb, entry.getValue());
-            }
-            sb.append("}");
-        } else if (v instanceof List<?> list) {
-            sb.append("[");
-            boolean first = true;
-            for (Object item : list) {
-                if (!first) sb.append(",");
-                first = false;
-                writeValue(sb, item);
-            }
-            sb.append("]");
-        } else {
-            // fallback
-            sb.append('"').append(escape(v.toString())).append('"');
-        }
-    }
-
-    private static String escape(String s) {
-        return s.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    /** Writes {@code obj} to {@code out} without building the document in memory first. */
+    public static void write(Writer out, Object obj) throws IOException {
+        new Generator(out).value(obj).flush();
+    }
+
+    public static Generator newGenerator(Writer out) {
+        return new Generator(out);
+    }
+
+    public static Generator newGenerator(OutputStream out) {
+        return new Generator(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    private static int firstEscape(String s, int from) {
+        for (int k = from; k < s.length(); k++) {
+            char c = s.charAt(k);
+            if (c < 0x20 || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029') return k;
+        }
+        return s.length();
+    }
+
+    // single pass: copy unescaped runs, replace only the characters that need it
+    private static void writeEscaped(Writer out, String s) throws IOException {
+        int run = 0;
+        int k = firstEscape(s, 0);
+        while (k < s.length()) {
+            if (k > run) out.write(s, run, k - run);
+            char c = s.charAt(k);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\b': out.write("\\b"); break;
+                case '\f': out.write("\\f"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    out.write("\\u");
+                    out.write(HEX[(c >> 12) & 0xF]);
+                    out.write(HEX[(c >> 8) & 0xF]);
+                    out.write(HEX[(c >> 4) & 0xF]);
+                    out.write(HEX[c & 0xF]);
+                    break;
+            }
+            run = k + 1;
+            k = firstEscape(s, run);
+        }
+        if (run < s.length()) out.write(s, run, s.length() - run);
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Streaming JSON writer. Commas and colons are tracked per nesting level,
+     * so callers only say what comes next.
+     */
+    public static final class Generator implements Closeable, Flushable {
+        private static final byte EMPTY_DOCUMENT = 0;
+        private static final byte NONEMPTY_DOCUMENT = 1;
+        private static final byte EMPTY_ARRAY = 2;
+        private static final byte NONEMPTY_ARRAY = 3;
+        private static final byte EMPTY_OBJECT = 4;
+        private static final byte DANGLING_NAME = 5;
+        private static final byte NONEMPTY_OBJECT = 6;
+
+        private final Writer out;
+        private byte[] stack = new byte[16];
+        private int depth = 1;
+        private final char[] digits = new char[20];
+
+        Generator(Writer out) {
+            this.out = out;
+            stack[0] = EMPTY_DOCUMENT;
+        }
+
+        public Generator beginObject() throws IOException {
+            beforeValue();
+            push(EMPTY_OBJECT);
+            out.write('{');
+            return this;
+        }
+
+        public Generator endObject() throws IOException {
+            byte top = stack[depth - 1];
+            if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) throw new IllegalStateException("Not in an object");
+            depth--;
+            out.write('}');
+            return this;
+        }
+
+        public Generator beginArray() throws IOException {
+            beforeValue();
+            push(EMPTY_ARRAY);
+            out.write('[');
+            return this;
+        }
+
+        public Generator endArray() throws IOException {
+            byte top = stack[depth - 1];
+            if (top != EMPTY_ARRAY && top != NONEMPTY_ARRAY) throw new IllegalStateException("Not in an array");
+            depth--;
+            out.write(']');
+            return this;
+        }
+
+        public Generator name(String name) throws IOException {
+            byte top = stack[depth - 1];
+            if (top == NONEMPTY_OBJECT) out.write(',');
+            else if (top != EMPTY_OBJECT) throw new IllegalStateException("Name outside of an object");
+            stack[depth - 1] = DANGLING_NAME;
+            out.write('"');
+            writeEscaped(out, name);
+            out.write("\":");
+            return this;
+        }
+
+        public Generator value(String v) throws IOException {
+            if (v == null) return nullValue();
+            beforeValue();
+            out.write('"');
+            writeEscaped(out, v);
+            out.write('"');
+            return this;
+        }
+
+        public Generator value(long v) throws IOException {
+            beforeValue();
+            if (v == Long.MIN_VALUE) {
+                out.write(Long.toString(v));
+                return this;
+            }
+            // format into a scratch buffer instead of Long.toString
+            int p = digits.length;
+            boolean negative = v < 0;
+            if (negative) v = -v;
+            do {
+                digits[--p] = (char) ('0' + (v % 10));
+                v /= 10;
+            } while (v != 0);
+            if (negative) digits[--p] = '-';
+            out.write(digits, p, digits.length - p);
+            return this;
+        }
+
+        public Generator value(double v) throws IOException {
+            if (Double.isNaN(v) || Double.isInfinite(v)) throw new IllegalArgumentException("Non-finite number: " + v);
+            beforeValue();
+            out.write(Double.toString(v));
+            return this;
+        }
+
+        public Generator value(boolean v) throws IOException {
+            beforeValue();
+            out.write(v ? "true" : "false");
+            return this;
+        }
+
+        public Generator nullValue() throws IOException {
+            beforeValue();
+            out.write("null");
+            return this;
+        }
+
+        /** Writes a tree of Map/List/String/Number/Boolean/null, like {@link JsonMini#stringify}. */
+        public Generator value(Object v) throws IOException {
+            if (v == null) {
+                nullValue();
+            } else if (v instanceof String s) {
+                value(s);
+            } else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+                value(((Number) v).longValue());
+            } else if (v instanceof Number || v instanceof Boolean) {
+                beforeValue();
+                out.write(v.toString());
+            } else if (v instanceof Map<?, ?> map) {
+                beginObject();
+                for (var entry : map.entrySet()) {
+                    name(String.valueOf(entry.getKey()));
+                    value(entry.getValue());
+                }
+                endObject();
+            } else if (v instanceof List<?> list) {
+                beginArray();
+                for (Object item : list) value(item);
+                endArray();
+            } else {
+                // fallback
+                value(v.toString());
+            }
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void beforeValue() throws IOException {
+            switch (stack[depth - 1]) {
+                case EMPTY_DOCUMENT: stack[depth - 1] = NONEMPTY_DOCUMENT; break;
+                case EMPTY_ARRAY: stack[depth - 1] = NONEMPTY_ARRAY; break;
+                case NONEMPTY_ARRAY: out.write(','); break;
+                case DANGLING_NAME: stack[depth - 1] = NONEMPTY_OBJECT; break;
+                case NONEMPTY_DOCUMENT: throw new IllegalStateException("JSON must have only one top-level value");
+                default: throw new IllegalStateException("Expected a name");
+            }
+        }
+
+        private void push(byte state) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = state;
+        }
+    }
+
+    // Unsynchronized Writer over a StringBuilder (StringWriter locks on every call).
+    private static final class BuilderWriter extends Writer {
+        private final StringBuilder sb;
+
+        BuilderWriter(StringBuilder sb) { this.sb = sb; }
+
+        @Override public void write(int c) { sb.append((char) c); }
+        @Override public void write(char[] cbuf, int off, int len) { sb.append(cbuf, off, len); }
+        @Override public void write(String str, int off, int len) { sb.append(str, off, off + len); }
+        @Override public void flush() {}
+        @Override public void close() {}
     }
 
     public static Object parse(String json) {
-        return new Parser(json).parseValue();
+        try (Metrics.Scope scope = PARSE_TIMER.start()) {
+            scope.bytes(json.length());
+            return new Parser(json).parseValue();
+        }
+    }
+
+    /** Same tree as {@link #parse(String)}, built from a token stream instead of one big String. */
+    @SuppressWarnings("try")
+    public static Object parse(Reader in) throws IOException {
+        try (Metrics.Scope scope = PARSE_TIMER.start()) {
+            PullParser p = newParser(in);
+            Object v = readTree(p, p.next());
+            if (p.next() != Token.END_DOCUMENT) throw new IllegalArgumentException("Unexpected trailing content");
+            return v;
+        }
+    }
+
+    public static PullParser newParser(Reader in) {
+        return new PullParser(in);
+    }
+
+    public static PullParser newParser(InputStream in) {
+        return new PullParser(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static Object readTree(PullParser p, Token t) throws IOException {
+        switch (t) {
+            case START_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (p.next() == Token.FIELD_NAME) {
+                    String key = p.getText();
+                    map.put(key, readTree(p, p.next()));
+                }
+                return map;
+            }
+            case START_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                for (Token v = p.next(); v != Token.END_ARRAY; v = p.next()) {
+                    list.add(readTree(p, v));
+                }
+                return list;
+            }
+            case STRING: return p.getText();
+            case NUMBER: return p.isIntegral() ? (Object) p.getLong() : (Object) p.getDouble();
+            case TRUE: return true;
+            case FALSE: return false;
+            case NULL: return null;
+            default: throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+    }
+
+    public enum Token {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY,
+        FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL,
+        END_DOCUMENT
+    }
+
+    /**
+     * Event-level JSON reader. {@link #next()} advances one token; the text of the current
+     * FIELD_NAME/STRING/NUMBER is kept in a reused buffer and only becomes a String on {@link #getText()}.
+     */
+    public static final class PullParser implements Closeable {
+        private static final int BUFFER_SIZE = 8192;
+
+        // nesting states (one per open container, plus the document itself)
+        private static final byte EMPTY_DOCUMENT = 0;
+        private static final byte NONEMPTY_DOCUMENT = 1;
+        private static final byte EMPTY_ARRAY = 2;
+        private static final byte NONEMPTY_ARRAY = 3;
+        private static final byte EMPTY_OBJECT = 4;
+        private static final byte DANGLING_NAME = 5;
+        private static final byte NONEMPTY_OBJECT = 6;
+
+        private Reader in;
+        private final char[] buf = new char[BUFFER_SIZE];
+        private int pos, limit;
+
+        // UTF-8 byte source (reset(InputStream)); buffers are created on first use and then kept
+        private InputStream bytesIn;
+        private ByteBuffer bytes;
+        private CharBuffer chars;
+        private CharsetDecoder decoder;
+        private boolean bytesEof, flushed;
+
+        private byte[] stack = new byte[16];
+        private int depth;
+
+        private Token current;
+        private final StringBuilder text = new StringBuilder();
+        private boolean integral;
+        private long longValue;
+
+        PullParser(Reader in) {
+            reset(in);
+        }
+
+        /** Re-targets this parser at a new document, keeping its buffers. */
+        public void reset(Reader in) {
+            this.in = in;
+            bytesIn = null;
+            restart();
+        }
+
+        /**
+         * Re-targets this parser at a UTF-8 byte stream, decoding it through buffers kept with the
+         * parser (no InputStreamReader / BufferedInputStream per document). Malformed input is an error.
+         */
+        public void reset(InputStream in) {
+            if (bytes == null) {
+                bytes = ByteBuffer.allocate(BUFFER_SIZE);
+                chars = CharBuffer.wrap(buf);
+                decoder = StandardCharsets.UTF_8.newDecoder();
+            }
+            this.in = null;
+            bytesIn = in;
+            bytes.clear().flip();
+            decoder.reset();
+            bytesEof = flushed = false;
+            restart();
+        }
+
+        /** Drops the current source so a pooled parser does not keep the last document reachable. */
+        void release() {
+            in = null;
+            bytesIn = null;
+        }
+
+        /**
+         * Copies up to {@code dst.length} leading bytes of the stream given to {@link #reset(InputStream)}
+         * into {@code dst} without consuming them; returns the number copied.
+         */
+        int peekBytes(byte[] dst) throws IOException {
+            while (bytes.remaining() < dst.length && readBytes()) {
+                // keep reading until enough bytes are buffered or the stream ends
+            }
+            int n = Math.min(dst.length, bytes.remaining());
+            for (int k = 0; k < n; k++) dst[k] = bytes.get(bytes.position() + k);
+            return n;
+        }
+
+        /** The rest of the byte stream, including bytes buffered but not yet decoded. */
+        InputStream remainingBytes() {
+            if (!bytes.hasRemaining()) return bytesIn;
+            InputStream head = new ByteArrayInputStream(bytes.array(), bytes.position(), bytes.remaining());
+            return new SequenceInputStream(head, bytesIn);
+        }
+
+        private void restart() {
+            pos = limit = 0;
+            depth = 1;
+            stack[0] = EMPTY_DOCUMENT;
+            current = null;
+            text.setLength(0);
+        }
+
+        public Token current() {
+            return current;
+        }
+
+        public Token next() throws IOException {
+            current = advance();
+            return current;
+        }
+
+        private Token advance() throws IOException {
+            int c;
+            switch (stack[depth - 1]) {
+                case EMPTY_DOCUMENT:
+                    stack[depth - 1] = NONEMPTY_DOCUMENT;
+                    return readValue(nextNonWs());
+                case NONEMPTY_DOCUMENT:
+                    if (nextNonWs() != -1) throw new IllegalArgumentException("Unexpected trailing content");
+                    return Token.END_DOCUMENT;
+                case EMPTY_ARRAY:
+                    c = nextNonWs();
+                    if (c == ']') { depth--; return Token.END_ARRAY; }
+                    stack[depth - 1] = NONEMPTY_ARRAY;
+                    return readValue(c);
+                case NONEMPTY_ARRAY:
+                    c = nextNonWs();
+                    if (c == ']') { depth--; return Token.END_ARRAY; }
+                    if (c != ',') throw unexpected(c, ',');
+                    return readValue(nextNonWs());
+                case EMPTY_OBJECT:
+                    c = nextNonWs();
+                    if (c == '}') { depth--; return Token.END_OBJECT; }
+                    return readName(c);
+                case NONEMPTY_OBJECT:
+                    c = nextNonWs();
+                    if (c == '}') { depth--; return Token.END_OBJECT; }
+                    if (c != ',') throw unexpected(c, ',');
+                    return readName(nextNonWs());
+                case DANGLING_NAME:
+                    c = nextNonWs();
+                    if (c != ':') throw unexpected(c, ':');
+                    stack[depth - 1] = NONEMPTY_OBJECT;
+                    return readValue(nextNonWs());
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        /** Skips the rest of the object/array just started; no-op for scalar tokens. */
+        public void skipChildren() throws IOException {
+            if (current != Token.START_OBJECT && current != Token.START_ARRAY) return;
+            int target = depth - 1;
+            while (depth > target) {
+                if (next() == Token.END_DOCUMENT) throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+        }
+
+        public String getText() {
+            return text.toString();
+        }
+
+        /** Compares the current name/string with {@code s} without allocating. */
+        public boolean textEquals(String s) {
+            if (text.length() != s.length()) return false;
+            for (int k = 0; k < s.length(); k++) {
+                if (text.charAt(k) != s.charAt(k)) return false;
+            }
+            return true;
+        }
+
+        public boolean isIntegral() {
+            return integral;
+        }
+
+        public long getLong() {
+            return integral ? longValue : (long) Double.parseDouble(text.toString());
+        }
+
+        public int getInt() {
+            return integral ? (int) longValue : (int) Double.parseDouble(text.toString());
+        }
+
+        public double getDouble() {
+            return integral ? longValue : Double.parseDouble(text.toString());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (bytesIn != null) {
+                bytesIn.close();
+            } else if (in != null) {
+                in.close();
+            }
+        }
+
+        private Token readName(int c) throws IOException {
+            if (c != '"') throw unexpected(c, '"');
+            readString();
+            stack[depth - 1] = DANGLING_NAME;
+            return Token.FIELD_NAME;
+        }
+
+        private Token readValue(int c) throws IOException {
+            switch (c) {
+                case '{': push(EMPTY_OBJECT); return Token.START_OBJECT;
+                case '[': push(EMPTY_ARRAY); return Token.START_ARRAY;
+                case '"': readString(); return Token.STRING;
+                case 't': readLiteral("rue"); return Token.TRUE;
+                case 'f': readLiteral("alse"); return Token.FALSE;
+                case 'n': readLiteral("ull"); return Token.NULL;
+                case -1: throw new IllegalArgumentException("Unexpected end of JSON");
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        readNumber(c);
+                        return Token.NUMBER;
+                    }
+                    throw new IllegalArgumentException("Unexpected char: " + (char) c);
+            }
+        }
+
+        private void push(byte state) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = state;
+        }
+
+        private void readString() throws IOException {
+            text.setLength(0);
+            while (true) {
+                // copy unescaped runs straight out of the buffer
+                int start = pos;
+                while (pos < limit) {
+                    char c = buf[pos];
+                    if (c == '"' || c == '\\') break;
+                    pos++;
+                }
+                text.append(buf, start, pos - start);
+                if (pos == limit) {
+                    if (!fill()) throw new IllegalArgumentException("Unterminated string");
+                    continue;
+                }
+                char c = buf[pos++];
+                if (c == '"') return;
+
+                int e = read();
+                switch (e) {
+                    case '"': text.append('"'); break;
+                    case '\\': text.append('\\'); break;
+                    case '/': text.append('/'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'u': text.append(readHex4()); break;
+                    case -1: throw new IllegalArgumentException("Bad escape");
+                    default: text.append((char) e); break;
+                }
+            }
+        }
+
+        private char readHex4() throws IOException {
+            int v = 0;
+            for (int k = 0; k < 4; k++) {
+                int d = Character.digit(read(), 16);
+                if (d < 0) throw new IllegalArgumentException("Bad unicode escape");
+                v = (v << 4) | d;
+            }
+            return (char) v;
+        }
+
+        private void readNumber(int first) throws IOException {
+            text.setLength(0);
+            text.append((char) first);
+            boolean negative = first == '-';
+            long v = negative ? 0 : first - '0';
+            int digits = negative ? 0 : 1;
+            integral = true;
+
+            while (true) {
+                int c = peek();
+                if (c >= '0' && c <= '9') {
+                    v = v * 10 + (c - '0');
+                    digits++;
+                } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && !integral)) {
+                    integral = false;
+                } else {
+                    break;
+                }
+                text.append((char) c);
+                pos++;
+            }
+            if (digits == 0) throw new IllegalArgumentException("Bad number");
+            if (integral && digits > 18) {
+                // too long for the fast path; let Long.parseLong decide
+                v = Long.parseLong(text.toString());
+                longValue = v;
+                return;
+            }
+            longValue = negative ? -v : v;
+        }
+
+        private void readLiteral(String rest) throws IOException {
+            for (int k = 0; k < rest.length(); k++) {
+                if (read() != rest.charAt(k)) throw new IllegalArgumentException("Bad literal");
+            }
+        }
+
+        private int nextNonWs() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1 || !Character.isWhitespace(c)) return c;
+            }
+        }
+
+        private int read() throws IOException {
+            if (pos == limit && !fill()) return -1;
+            return buf[pos++];
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit && !fill()) return -1;
+            return buf[pos];
+        }
+
+        private boolean fill() throws IOException {
+            if (bytesIn != null) return decode();
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0) {
+                pos = limit = 0;
+                return false;
+            }
+            pos = 0;
+            limit = n;
+            return true;
+        }
+
+        private boolean decode() throws IOException {
+            chars.clear();
+            while (!flushed) {
+                CoderResult r = decoder.decode(bytes, chars, bytesEof);
+                if (r.isError()) r.throwException();
+                if (chars.position() == 0 && bytesEof) {
+                    decoder.flush(chars);
+                    flushed = true;
+                }
+                if (chars.position() > 0 || bytesEof) break;
+                readBytes();
+            }
+            pos = 0;
+            limit = chars.position();
+            return limit > 0;
+        }
+
+        // Appends to the byte buffer (kept in read mode); false at end of stream.
+        private boolean readBytes() throws IOException {
+            if (bytesEof) return false;
+            bytes.compact();
+            int n = bytesIn.read(bytes.array(), bytes.position(), bytes.remaining());
+            if (n > 0) bytes.position(bytes.position() + n);
+            bytes.flip();
+            if (n < 0) bytesEof = true;
+            return n >= 0;
+        }
+
+        private static IllegalArgumentException unexpected(int c, char expected) {
+            if (c == -1) return new IllegalArgumentException("Unexpected end of JSON");
+            return new IllegalArgumentException("Expected '" + expected + "'");
+        }
     }
 
     private static class Parser {
@@ -134,6 +765,13 @@ public class JsonMini {
                         case 'n': out.append('\n'); break;
                         case 'r': out.append('\r'); break;
                         case 't': out.append('\t'); break;
+                        case 'b': out.append('\b'); break;
+                        case 'f': out.append('\f'); break;
+                        case 'u':
+                            if (i + 4 > s.length()) throw new IllegalArgumentException("Bad unicode escape");
+                            out.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                            i += 4;
+                            break;
                         default: out.append(e); break;
                     }
                 } else {
@@ -5,35 +5,44 @@ import java.awt.*;
 
 public class LanguageDialog extends JDialog {
 
+    private static final String[] LANGS = {"Java", "C++", "C#", "Python", "Ruby", "Objective-C"};
+
+    // one instance per frame, kept as a client property of the frame's root pane;
+    // hidden on OK/Cancel and reset before each showing
+    private static final Object CACHE_KEY = LanguageDialog.class;
+
     private String selectedLanguage = null;
+    private final JList<String> list = new JList<>(LANGS);
+
+    /** Shared dialog for {@code owner}, reset to {@code current}; built on first use. */
+    public static LanguageDialog forOwner(JFrame owner, String current) {
+        LanguageDialog dlg = owner != null ? (LanguageDialog) owner.getRootPane().getClientProperty(CACHE_KEY) : null;
+        if (dlg == null) {
+            dlg = new LanguageDialog(owner, current);
+            if (owner != null) owner.getRootPane().putClientProperty(CACHE_KEY, dlg);
+        } else {
+            dlg.reset(current);
+        }
+        dlg.setLocationRelativeTo(owner);
+        return dlg;
+    }
 
     public LanguageDialog(JFrame owner, String current) {
         super(owner, "Select Language", true);
         setSize(360, 260);
         setLocationRelativeTo(owner);
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
 
-        String[] langs = {"Java", "C++", "C#", "Python", "Ruby", "Objective-C"};
-
-        JList<String> list = new JList<>(langs);
         list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        if (current != null) {
-            for (int i = 0; i < langs.length; i++) {
-                if (langs[i].equalsIgnoreCase(current.trim())) {
-                    list.setSelectedIndex(i);
-                    break;
-                }
-            }
-        }
-
         JButton ok = new JButton("OK");
         JButton cancel = new JButton("Cancel");
 
         ok.addActionListener(e -> {
             selectedLanguage = list.getSelectedValue();
-            dispose();
+            setVisible(false);
         });
-        cancel.addActionListener(e -> dispose());
+        cancel.addActionListener(e -> setVisible(false));
 
         JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         btns.add(cancel);
@@ -42,6 +51,23 @@ public class LanguageDialog extends JDialog {
         setLayout(new BorderLayout(10, 10));
         add(new JScrollPane(list), BorderLayout.CENTER);
         add(btns, BorderLayout.SOUTH);
+
+        reset(current);
+    }
+
+    /** Clears the last answer and preselects {@code current}. */
+    public void reset(String current) {
+        selectedLanguage = null;
+        list.clearSelection();
+        if (current != null) {
+            for (int i = 0; i < LANGS.length; i++) {
+                if (LANGS[i].equalsIgnoreCase(current.trim())) {
+                    list.setSelectedIndex(i);
+                    list.ensureIndexIsVisible(i);
+                    break;
+                }
+            }
+        }
     }
 
     public String getSelectedLanguage() {
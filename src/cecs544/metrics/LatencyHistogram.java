@@ -0,0 +1,92 @@
+package cecs544.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in nanoseconds. Buckets are log-linear: every power of two is
+ * split into 8 equal sub-buckets, so any reported value is within 12.5% of the true one and the
+ * whole range up to Long.MAX_VALUE fits in 488 counters.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        sum.add(nanos);
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+    }
+
+    public long count() { return count.sum(); }
+
+    public long max() { return max.get(); }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /** Upper bound of the bucket holding the {@code q}-quantile (0 when empty). */
+    public long percentile(double q) {
+        long[] snap = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snap[i] = counts.get(i);
+            n += snap[i];
+        }
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snap[i];
+            if (seen >= target) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /** Summary in milliseconds: count, mean, p50/p90/p99/p999, max. */
+    void write(JsonMini.Generator g) throws IOException {
+        g.beginObject();
+        g.name("count").value(count());
+        g.name("meanMs").value(mean() / 1e6);
+        g.name("p50Ms").value(percentile(0.50) / 1e6);
+        g.name("p90Ms").value(percentile(0.90) / 1e6);
+        g.name("p99Ms").value(percentile(0.99) / 1e6);
+        g.name("p999Ms").value(percentile(0.999) / 1e6);
+        g.name("maxMs").value(max() / 1e6);
+        g.endObject();
+    }
+
+    static int bucket(long v) {
+        if (v < SUB) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        return (e - SUB_BITS + 1) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int e = bucket / SUB + SUB_BITS - 1;
+        long lower = (long) (SUB + bucket % SUB) << (e - SUB_BITS);
+        return lower + (1L << (e - SUB_BITS)) - 1;
+    }
+}
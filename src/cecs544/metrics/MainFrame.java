@@ -1,14 +1,46 @@
 package cecs544.metrics;
 
 import javax.swing.*;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import java.awt.*;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class MainFrame extends JFrame {
 
     private final JTabbedPane tabs = new JTabbedPane();
     private ProjectModel project = ProjectModel.newEmpty("Untitled", "Unknown");
     private File currentFile = null;
+    private boolean currentFileBinary = false;
+
+    // journaled autosave: small change records appended next to the snapshot
+    private static final int AUTOSAVE_MS = 30_000;
+    private final JCheckBoxMenuItem journalItem = new JCheckBoxMenuItem("Journaled Autosave");
+    private final Timer autosaveTimer = new Timer(AUTOSAVE_MS, e -> autosave());
+    private ProjectJournal journal = null;
+    private ProjectModel lastPersisted = null; // what currentFile (+ journal) holds on disk
+    private String autosaveError = null; // last autosave failure, shown in the title until a save succeeds
+
+    // File > Browse Projects: kept (and watching) between uses of the dialog
+    private ProjectIndex projectIndex = null;
+
+    // menu items are created the first time their menu opens
+    private final List<Runnable> pendingMenus = new ArrayList<>();
+
+    private static final Metrics.Timer SAVE_TIMER = Metrics.timer("project.save");
+    private static final Metrics.Timer OPEN_TIMER = Metrics.timer("project.open");
+
+    private final javax.swing.filechooser.FileFilter jsonFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("Metrics Suite project - JSON (*.ms)", "ms");
+    private final javax.swing.filechooser.FileFilter binaryFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("Metrics Suite project - compact binary (*.ms)", "ms");
 
     public MainFrame() {
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
@@ -17,6 +49,10 @@ public class MainFrame extends JFrame {
 
         setLayout(new BorderLayout());
         add(tabs, BorderLayout.CENTER);
+        // the function list borrows the VAF values, which may have changed on another tab
+        tabs.addChangeListener(e -> {
+            if (tabs.getSelectedComponent() instanceof FunctionListPanel flp) flp.updateTotals();
+        });
 
         setJMenuBar(buildMenuBar());
         refreshTitle();
@@ -24,58 +60,119 @@ public class MainFrame extends JFrame {
 
     private JMenuBar buildMenuBar() {
         JMenuBar bar = new JMenuBar();
+        bar.add(lazyMenu("File", this::populateFileMenu));
+        bar.add(lazyMenu("Edit", this::populateEditMenu));
+        bar.add(lazyMenu("Preferences", this::populatePreferencesMenu));
+        bar.add(lazyMenu("Metrics", this::populateMetricsMenu));
+        bar.add(lazyMenu("Help", this::populateHelpMenu));
+        return bar;
+    }
+
+    private JMenu lazyMenu(String title, Consumer<JMenu> populate) {
+        JMenu menu = new JMenu(title);
+        Runnable build = new Runnable() {
+            private boolean built;
 
-        // File
-        JMenu file = new JMenu("File");
+            @Override public void run() {
+                if (built) return;
+                built = true;
+                pendingMenus.remove(this);
+                populate.accept(menu);
+            }
+        };
+        pendingMenus.add(build);
+        menu.addMenuListener(new MenuListener() {
+            @Override public void menuSelected(MenuEvent e) { build.run(); }
+            @Override public void menuDeselected(MenuEvent e) {}
+            @Override public void menuCanceled(MenuEvent e) {}
+        });
+        return menu;
+    }
+
+    private void populateFileMenu(JMenu file) {
         JMenuItem mNew = new JMenuItem("New");
         JMenuItem mOpen = new JMenuItem("Open");
+        JMenuItem mBrowse = new JMenuItem("Browse Projects...");
         JMenuItem mSave = new JMenuItem("Save");
+        JMenuItem mSaveAs = new JMenuItem("Save As...");
         JMenuItem mExit = new JMenuItem("Exit");
 
         mNew.addActionListener(e -> newProject());
         mOpen.addActionListener(e -> openProject());
-        mSave.addActionListener(e -> saveProject());
+        mBrowse.addActionListener(e -> browseProjects());
+        mSave.addActionListener(e -> saveProject(false));
+        mSaveAs.addActionListener(e -> saveProject(true));
         mExit.addActionListener(e -> dispose());
+        journalItem.addActionListener(e -> restartJournal());
 
         file.add(mNew);
         file.add(mOpen);
+        file.add(mBrowse);
         file.add(mSave);
+        file.add(mSaveAs);
+        file.addSeparator();
+        file.add(journalItem);
         file.addSeparator();
         file.add(mExit);
+    }
 
-        // Edit (placeholder)
-        JMenu edit = new JMenu("Edit");
+    private void populateEditMenu(JMenu edit) {
         edit.add(new JMenuItem("(not used in Iteration 1)"));
+    }
 
-        // Preferences
-        JMenu prefs = new JMenu("Preferences");
+    private void populatePreferencesMenu(JMenu prefs) {
         JMenuItem mLang = new JMenuItem("Language");
         mLang.addActionListener(e -> chooseLanguage());
         prefs.add(mLang);
+    }
 
-        // Metrics
-        JMenu metrics = new JMenu("Metrics");
+    private void populateMetricsMenu(JMenu metrics) {
         JMenu fp = new JMenu("Function Points");
         JMenuItem enterFp = new JMenuItem("Enter FP Data");
         enterFp.addActionListener(e -> addFunctionPointsTab());
         fp.add(enterFp);
+        JMenuItem functionList = new JMenuItem("Function List");
+        functionList.addActionListener(e -> addFunctionListTab());
+        fp.add(functionList);
+        JMenuItem uncertainty = new JMenuItem("Uncertainty Analysis...");
+        uncertainty.addActionListener(e -> openUncertaintyAnalysis());
+        fp.add(uncertainty);
+        JMenuItem range = new JMenuItem("FP Range Explorer...");
+        range.addActionListener(e -> openRangeExplorer());
+        fp.add(range);
         metrics.add(fp);
+    }
 
-        // Help (placeholder)
-        JMenu help = new JMenu("Help");
-        help.add(new JMenuItem("(not used in Iteration 1)"));
+    private void populateHelpMenu(JMenu help) {
+        JMenuItem diagnostics = new JMenuItem("Diagnostics...");
+        diagnostics.addActionListener(e -> new DiagnosticsDialog(this).setVisible(true));
+        help.add(diagnostics);
+    }
 
-        bar.add(file);
-        bar.add(edit);
-        bar.add(prefs);
-        bar.add(metrics);
-        bar.add(help);
+    /** Builds the reusable dialogs ahead of their first use (call once the frame is up). */
+    void prebuildDialogs() {
+        VafDialog.forOwner(this, null);
+        LanguageDialog.forOwner(this, project.language);
+    }
 
-        return bar;
+    /**
+     * Training pass for the class-data-sharing archive: touches every menu, an FP tab with data,
+     * the reusable dialogs and a JSON round trip so their classes are loaded before exit.
+     */
+    void warmUp() {
+        new ArrayList<>(pendingMenus).forEach(Runnable::run);
+        prebuildDialogs();
+        addFunctionPointsTab();
+        FunctionPointsPanel fpp = getAnyFpPanel();
+        if (fpp != null) project.fpState = fpp.exportState();
+        ProjectModel.fromJson(project.toJson());
+        tabs.removeAll();
     }
 
     private void refreshTitle() {
-        setTitle("CECS 544 Metrics Suite - " + project.projectName);
+        String title = "CECS 544 Metrics Suite - " + project.projectName;
+        if (autosaveError != null) title += " (autosave failed: " + autosaveError + ")";
+        setTitle(title);
     }
 
     private void newProject() {
@@ -95,13 +192,16 @@ public class MainFrame extends JFrame {
 
         project = ProjectModel.newEmpty(projectName.getText().trim(), creator.getText().trim());
         currentFile = null;
+        currentFileBinary = false;
+        lastPersisted = null;
+        restartJournal();
 
         tabs.removeAll();
         refreshTitle();
     }
 
     private void chooseLanguage() {
-        LanguageDialog dlg = new LanguageDialog(this, project.language);
+        LanguageDialog dlg = LanguageDialog.forOwner(this, project.language);
         dlg.setVisible(true);
 
         if (dlg.getSelectedLanguage() != null) {
@@ -132,16 +232,81 @@ public class MainFrame extends JFrame {
         tabs.setSelectedComponent(panel);
     }
 
-    private void saveProject() {
+    private void addFunctionListTab() {
+        for (int i = 0; i < tabs.getTabCount(); i++) {
+            if (tabs.getComponentAt(i) instanceof FunctionListPanel) {
+                tabs.setSelectedIndex(i);
+                return;
+            }
+        }
+        FunctionListPanel panel = new FunctionListPanel(this::currentFpState, this::applyFpState);
+        tabs.addTab("Function List", panel);
+        tabs.setSelectedComponent(panel);
+    }
+
+    // FP state computed elsewhere (the function list): becomes the project's and the FP tab's inputs
+    private void applyFpState(ProjectModel.FPState s) {
+        if (s.language == null) s.language = project.language;
+        project.fpState = s;
+        FunctionPointsPanel fpp = getAnyFpPanel();
+        if (fpp != null) fpp.loadFromState(s);
+    }
+
+    private void openUncertaintyAnalysis() {
+        ProjectModel.FPState s = currentFpState();
+        String lang = (s != null && s.language != null && !s.language.equals("None")) ? s.language : project.language;
+        new MonteCarloDialog(this, s, lang).setVisible(true);
+    }
+
+    private void openRangeExplorer() {
+        ProjectModel.FPState s = currentFpState();
+        new FpRangeDialog(this, s != null ? s.counts : new int[5]).setVisible(true);
+    }
+
+    // latest FP inputs: the open panel if any, otherwise whatever the project holds
+    private ProjectModel.FPState currentFpState() {
+        FunctionPointsPanel fpp = getAnyFpPanel();
+        return fpp != null ? fpp.exportState() : project.fpState;
+    }
+
+    /**
+     * Save: in journaled mode only appends what changed to the current file's journal.
+     * Save As (or Save without a journal) asks for a file and format and writes a full snapshot.
+     */
+    @SuppressWarnings("try")
+    private void saveProject(boolean saveAs) {
         // capture fp state from selected fp panel if any
         FunctionPointsPanel fpp = getAnyFpPanel();
         if (fpp != null) {
             project.fpState = fpp.exportState();
         }
 
+        // journaled mode: re-saving the current file only appends what changed
+        if (journal != null && !saveAs) {
+            ProjectJournal j = journal;
+            ProjectModel snapshot = project.copy();
+            ProgressDialog.run(this, "Save Project", "Saving changes...",
+                    progress -> {
+                        try (Metrics.Scope ignored = SAVE_TIMER.start()) {
+                            return j.append(snapshot).get();
+                        }
+                    },
+                    n -> {
+                        lastPersisted = snapshot;
+                        clearAutosaveError();
+                        JOptionPane.showMessageDialog(this, "Saved " + n + " change(s) to journal: " + currentFile.getAbsolutePath());
+                    },
+                    ex -> JOptionPane.showMessageDialog(this, "Save failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+            return;
+        }
+
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle("Save Project");
         chooser.setSelectedFile(currentFile != null ? currentFile : new File(project.projectName + ".ms"));
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(jsonFilter);
+        chooser.addChoosableFileFilter(binaryFilter);
+        chooser.setFileFilter(currentFileBinary ? binaryFilter : jsonFilter);
 
         int result = chooser.showSaveDialog(this);
         if (result != JFileChooser.APPROVE_OPTION) return;
@@ -151,14 +316,49 @@ public class MainFrame extends JFrame {
             f = new File(f.getParentFile(), f.getName() + ".ms");
         }
 
-        try {
-            String json = project.toJson();
-            java.nio.file.Files.writeString(f.toPath(), json);
-            currentFile = f;
-            JOptionPane.showMessageDialog(this, "Saved: " + f.getAbsolutePath());
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Save failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        boolean binary = chooser.getFileFilter() == binaryFilter;
+        File target = f;
+        ProjectModel snapshot = project.copy();
+        // the full rewrite replaces the journal; let its queued writes finish first
+        Future<?> journalClosed = closeJournal();
+        AtomicBoolean replaced = new AtomicBoolean(); // set once the new file is in place
+
+        // serialize + write off the EDT; the model snapshot was taken above
+        ProgressDialog.run(this, "Save Project", "Saving " + target.getName() + "...",
+                progress -> {
+                    journalClosed.get();
+                    try (Metrics.Scope scope = SAVE_TIMER.start()) {
+                        snapshot.save(target.toPath(), binary, progress::wrap);
+                        replaced.set(true);
+                        ProjectJournal.discard(target.toPath()); // full rewrite supersedes any old log
+                        scope.bytes(target.length());
+                    }
+                    return target;
+                },
+                saved -> {
+                    savedAs(target, binary, snapshot);
+                    clearAutosaveError();
+                    JOptionPane.showMessageDialog(this, "Saved: " + saved.getAbsolutePath());
+                },
+                ex -> {
+                    restartJournal(); // keep journaling the file we still have
+                    JOptionPane.showMessageDialog(this, "Save failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                },
+                cancelled -> {
+                    // a cancel that came too late to stop the rename still replaced the file
+                    if (replaced.get()) {
+                        savedAs(target, binary, snapshot);
+                    } else {
+                        restartJournal();
+                    }
+                });
+    }
+
+    private void savedAs(File file, boolean binary, ProjectModel snapshot) {
+        currentFile = file;
+        currentFileBinary = binary;
+        lastPersisted = snapshot;
+        restartJournal();
     }
 
     private void openProject() {
@@ -168,23 +368,104 @@ public class MainFrame extends JFrame {
         int result = chooser.showOpenDialog(this);
         if (result != JFileChooser.APPROVE_OPTION) return;
 
-        File f = chooser.getSelectedFile();
-        try {
-            String json = java.nio.file.Files.readString(f.toPath());
-            project = ProjectModel.fromJson(json);
-            currentFile = f;
+        openProject(chooser.getSelectedFile());
+    }
+
+    private void browseProjects() {
+        ProjectBrowserDialog dlg = new ProjectBrowserDialog(this, projectIndex);
+        dlg.setVisible(true);
+        projectIndex = dlg.getIndex();
+        if (dlg.getSelectedFile() != null) openProject(dlg.getSelectedFile().toFile());
+    }
+
+    private void openProject(File f) {
+        // read + decode off the EDT; only the tab population comes back here
+        ProgressDialog.run(this, "Open Project", "Opening " + f.getName() + "...",
+                progress -> {
+                    try (Metrics.Scope scope = OPEN_TIMER.start()) {
+                        progress.setTotal(f.length());
+                        scope.bytes(f.length());
+                        ProjectModel loaded = ProjectJournal.load(f.toPath(), progress::wrap);
+                        return new Opened(loaded, ProjectBinary.isBinary(f.toPath()));
+                    }
+                },
+                opened -> {
+                    project = opened.model();
+                    currentFile = f;
+                    currentFileBinary = opened.binary();
+                    lastPersisted = project.copy();
+                    restartJournal();
+
+                    tabs.removeAll();
+                    refreshTitle();
+
+                    // On open, create an FP tab and populate it (as spec says)
+                    addFunctionPointsTab();
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Open failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    /** (Re)binds the journal to the current file when journaled autosave is on. */
+    private void restartJournal() {
+        closeJournal();
+        if (journalItem.isSelected() && currentFile != null && lastPersisted != null) {
+            journal = ProjectJournal.open(currentFile.toPath(), currentFileBinary, lastPersisted);
+            autosaveTimer.start();
+        }
+    }
 
-            tabs.removeAll();
-            refreshTitle();
+    // Non-blocking: the journal's queued appends finish on its io thread, not the EDT.
+    private Future<?> closeJournal() {
+        autosaveTimer.stop();
+        if (journal == null) return CompletableFuture.completedFuture(null);
+        Future<?> closed = journal.closeAsync();
+        journal = null;
+        return closed;
+    }
 
-            // On open, create an FP tab and populate it (as spec says)
-            addFunctionPointsTab();
+    private void clearAutosaveError() {
+        if (autosaveError == null) return;
+        autosaveError = null;
+        refreshTitle();
+    }
 
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Open failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    private void autosave() {
+        if (journal == null) return;
+        FunctionPointsPanel fpp = getAnyFpPanel();
+        if (fpp != null) {
+            project.fpState = fpp.exportState();
         }
+        ProjectModel snapshot = project.copy();
+        ProjectJournal j = journal;
+
+        // append on the journal's own thread; report back on the EDT
+        new SwingWorker<Integer, Void>() {
+            @Override protected Integer doInBackground() throws Exception {
+                try {
+                    return j.append(snapshot).get();
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof Exception cause ? cause : ex;
+                }
+            }
+
+            @Override protected void done() {
+                if (j != journal) return; // closed or replaced meanwhile
+                try {
+                    get();
+                    lastPersisted = snapshot;
+                    clearAutosaveError();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("Autosave failed: " + cause.getMessage());
+                    autosaveError = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                    refreshTitle();
+                }
+            }
+        }.execute();
     }
 
+    private record Opened(ProjectModel model, boolean binary) {}
+
     private FunctionPointsPanel getAnyFpPanel() {
         for (int i = 0; i < tabs.getTabCount(); i++) {
             Component c = tabs.getComponentAt(i);
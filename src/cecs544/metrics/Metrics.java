@@ -0,0 +1,251 @@
+package cecs544.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics registry: named counters, timers and histograms, plus a JFR event per timed
+ * operation so the same spans show up in a flight recording.
+ *
+ * Timed code uses a scope:
+ * <pre>
+ *   try (Metrics.Scope s = Metrics.timer("json.parse").start()) {
+ *       ...
+ *       s.bytes(json.length());
+ *   }
+ * </pre>
+ * A scope records wall time, bytes (chars for in-memory JSON) and bytes allocated by the calling
+ * thread. Everything is thread-safe; the registry is process-wide.
+ */
+public final class Metrics {
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    // HotSpot's per-thread allocation counter; null on VMs without it
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private Metrics() {}
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /** Free-form value histogram (same log buckets as the timers, values in nanoseconds). */
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(c -> c.value.reset());
+        TIMERS.values().forEach(Timer::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() { value.increment(); }
+
+        public void add(long n) { value.add(n); }
+
+        public long get() { return value.sum(); }
+    }
+
+    public static final class Timer {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        private Timer(String name) { this.name = name; }
+
+        public Scope start() {
+            return new Scope(this);
+        }
+
+        public long count() { return latency.count(); }
+
+        public long totalNanos() { return totalNanos.sum(); }
+
+        public long bytes() { return bytes.sum(); }
+
+        public long allocatedBytes() { return allocated.sum(); }
+
+        public LatencyHistogram latency() { return latency; }
+
+        void record(long nanos, long byteCount, long alloc) {
+            latency.record(nanos);
+            totalNanos.add(nanos);
+            bytes.add(byteCount);
+            if (alloc > 0) allocated.add(alloc);
+        }
+
+        void reset() {
+            latency.reset();
+            totalNanos.reset();
+            bytes.reset();
+            allocated.reset();
+        }
+    }
+
+    /** One timed operation; close it on the thread that started it. */
+    public static final class Scope implements AutoCloseable {
+        private final Timer timer;
+        private final long start;
+        private final long allocStart;
+        private final OperationEvent event;
+        private long bytes;
+
+        private Scope(Timer timer) {
+            this.timer = timer;
+            OperationEvent e = new OperationEvent();
+            if (e.isEnabled()) {
+                e.operation = timer.name;
+                e.begin();
+                this.event = e;
+            } else {
+                this.event = null;
+            }
+            this.allocStart = allocatedByThisThread();
+            this.start = System.nanoTime();
+        }
+
+        public Scope bytes(long n) {
+            bytes += n;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - start;
+            long alloc = allocStart < 0 ? 0 : allocatedByThisThread() - allocStart;
+            timer.record(nanos, bytes, alloc);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.bytes = bytes;
+                    event.allocated = alloc;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    @Name("cecs544.Operation")
+    @Label("Metrics Suite Operation")
+    @Category("CECS 544 Metrics Suite")
+    @Description("A timed operation: FP recalculation, JSON parse/stringify, project save/open")
+    @StackTrace(false)
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Bytes")
+        @Description("Bytes read or written (characters for in-memory JSON)")
+        @DataAmount
+        long bytes;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+                    && t.isThreadAllocatedMemorySupported()) {
+                t.setThreadAllocatedMemoryEnabled(true);
+                return t;
+            }
+        } catch (UnsupportedOperationException | LinkageError ignored) {}
+        return null;
+    }
+
+    private static long allocatedByThisThread() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    // ----- reporting -----
+
+    /** Plain-text table for the diagnostics dialog. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %10s %10s %10s %10s %10s %12s %12s%n",
+                "Timer", "count", "mean ms", "p50 ms", "p99 ms", "max ms", "bytes", "alloc/op"));
+        for (Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()) {
+            Timer t = e.getValue();
+            long n = t.count();
+            sb.append(String.format("%-28s %,10d %10.3f %10.3f %10.3f %10.3f %,12d %,12d%n",
+                    e.getKey(), n, t.latency.mean() / 1e6, t.latency.percentile(0.50) / 1e6,
+                    t.latency.percentile(0.99) / 1e6, t.latency.max() / 1e6, t.bytes(),
+                    n == 0 ? 0 : t.allocatedBytes() / n));
+        }
+        if (!HISTOGRAMS.isEmpty()) {
+            sb.append(String.format("%n%-28s %10s %10s %10s %10s %10s%n",
+                    "Histogram (ms)", "count", "mean", "p50", "p99", "max"));
+            for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+                LatencyHistogram h = e.getValue();
+                sb.append(String.format("%-28s %,10d %10.3f %10.3f %10.3f %10.3f%n", e.getKey(), h.count(),
+                        h.mean() / 1e6, h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.max() / 1e6));
+            }
+        }
+        if (!COUNTERS.isEmpty()) {
+            sb.append(String.format("%n%-28s %12s%n", "Counter", "value"));
+            for (Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()) {
+                sb.append(String.format("%-28s %,12d%n", e.getKey(), e.getValue().get()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Whole registry as one JSON object (flushed, not closed). */
+    public static void writeJson(Writer out) throws IOException {
+        JsonMini.Generator g = JsonMini.newGenerator(out);
+        g.beginObject();
+        g.name("timers").beginObject();
+        for (Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()) {
+            Timer t = e.getValue();
+            g.name(e.getKey()).beginObject();
+            g.name("totalMs").value(t.totalNanos() / 1e6);
+            g.name("bytes").value(t.bytes());
+            g.name("allocatedBytes").value(t.allocatedBytes());
+            g.name("latency");
+            t.latency.write(g);
+            g.endObject();
+        }
+        g.endObject();
+        g.name("histograms").beginObject();
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            g.name(e.getKey());
+            e.getValue().write(g);
+        }
+        g.endObject();
+        g.name("counters").beginObject();
+        for (Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()) {
+            g.name(e.getKey()).value(e.getValue().get());
+        }
+        g.endObject();
+        g.endObject();
+        g.flush();
+    }
+}
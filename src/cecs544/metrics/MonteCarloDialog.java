@@ -0,0 +1,215 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+
+/**
+ * Uncertainty analysis: counts as min / likely / max ranges, complexities and VAF factors as
+ * ranges, then a Monte Carlo run reporting FP and LOC percentiles and an FP histogram.
+ */
+public class MonteCarloDialog extends JDialog {
+
+    private static final String[] COMPLEXITY_CHOICES = {
+            "Simple", "Average", "Complex", "Simple or Average", "Average or Complex", "Any"
+    };
+
+    private final JTextField[][] countFields = new JTextField[5][3]; // min, likely, max
+    private final JComboBox<String>[] complexityCombos = newComboArray(5);
+    private final JComboBox<Integer>[] vafMin = newComboArray(14);
+    private final JComboBox<Integer>[] vafMax = newComboArray(14);
+    private final JTextField samplesField = new JTextField("1000000", 10);
+    private final JTextArea results = new JTextArea(5, 40);
+    private final HistogramPanel histogram = new HistogramPanel();
+    private final JButton runBtn = new JButton("Run");
+
+    private final String language;
+
+    public MonteCarloDialog(JFrame owner, ProjectModel.FPState current, String language) {
+        super(owner, "FP Uncertainty Analysis (Monte Carlo)", true);
+        this.language = language;
+        setSize(900, 640);
+        setLocationRelativeTo(owner);
+
+        ProjectModel.FPState s = current != null ? current : new ProjectModel.FPState();
+
+        JPanel inputs = new JPanel(new GridLayout(1, 2, 8, 8));
+        inputs.add(buildCountsGrid(s));
+        inputs.add(new JScrollPane(buildVafGrid(s)));
+
+        JPanel bottom = new JPanel(new BorderLayout(8, 8));
+        JPanel runRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        runRow.add(new JLabel("Language: " + (language == null ? "None" : language)));
+        runRow.add(Box.createHorizontalStrut(16));
+        runRow.add(new JLabel("Samples:"));
+        runRow.add(samplesField);
+        runRow.add(runBtn);
+        results.setEditable(false);
+        results.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        bottom.add(runRow, BorderLayout.NORTH);
+        bottom.add(new JScrollPane(results), BorderLayout.CENTER);
+        histogram.setBorder(new TitledBorder("FP distribution"));
+        bottom.add(histogram, BorderLayout.EAST);
+
+        JButton close = new JButton("Close");
+        close.addActionListener(e -> dispose());
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btns.add(close);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(bottom, BorderLayout.CENTER);
+        south.add(btns, BorderLayout.SOUTH);
+
+        setLayout(new BorderLayout(10, 10));
+        add(inputs, BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        runBtn.addActionListener(e -> runAnalysis());
+    }
+
+    private JComponent buildCountsGrid(ProjectModel.FPState s) {
+        JPanel grid = new JPanel(new GridBagLayout());
+        grid.setBorder(new TitledBorder("Counts (min / likely / max) and complexity"));
+        GridBagConstraints g = new GridBagConstraints();
+        g.insets = new Insets(4, 4, 4, 4);
+        g.fill = GridBagConstraints.HORIZONTAL;
+
+        g.gridy = 0;
+        g.gridx = 0; grid.add(new JLabel("Item"), g);
+        g.gridx = 1; grid.add(new JLabel("Min"), g);
+        g.gridx = 2; grid.add(new JLabel("Likely"), g);
+        g.gridx = 3; grid.add(new JLabel("Max"), g);
+        g.gridx = 4; grid.add(new JLabel("Complexity"), g);
+
+        for (int i = 0; i < 5; i++) {
+            g.gridy = i + 1;
+            g.gridx = 0;
+            grid.add(new JLabel(FunctionPointsPanel.FP_ITEMS[i]), g);
+            for (int k = 0; k < 3; k++) {
+                g.gridx = k + 1;
+                countFields[i][k] = new JTextField(String.valueOf(s.counts[i]), 5);
+                grid.add(countFields[i][k], g);
+            }
+            g.gridx = 4;
+            JComboBox<String> cb = new JComboBox<>(COMPLEXITY_CHOICES);
+            cb.setSelectedIndex(FunctionPointEngine.normalizeComplexity(s.complexities[i]));
+            complexityCombos[i] = cb;
+            grid.add(cb, g);
+        }
+        return grid;
+    }
+
+    private JComponent buildVafGrid(ProjectModel.FPState s) {
+        JPanel grid = new JPanel(new GridBagLayout());
+        grid.setBorder(new TitledBorder("Value adjustment factors (min / max)"));
+        GridBagConstraints g = new GridBagConstraints();
+        g.insets = new Insets(2, 4, 2, 4);
+        g.fill = GridBagConstraints.HORIZONTAL;
+
+        Integer[] values = {0, 1, 2, 3, 4, 5};
+        for (int k = 0; k < 14; k++) {
+            g.gridy = k;
+            g.gridx = 0;
+            g.weightx = 1.0;
+            grid.add(new JLabel((k + 1) + ". " + VafDialog.FACTORS[k]), g);
+            g.weightx = 0.0;
+
+            vafMin[k] = new JComboBox<>(values);
+            vafMax[k] = new JComboBox<>(values);
+            vafMin[k].setSelectedItem(s.vafValues[k]);
+            vafMax[k].setSelectedItem(s.vafValues[k]);
+            g.gridx = 1; grid.add(vafMin[k], g);
+            g.gridx = 2; grid.add(vafMax[k], g);
+        }
+        return grid;
+    }
+
+    private MonteCarloEstimator.Input readInput() {
+        MonteCarloEstimator.Input in = new MonteCarloEstimator.Input();
+        in.language = language;
+        for (int i = 0; i < 5; i++) {
+            int min = parseCount(countFields[i][0]);
+            int likely = parseCount(countFields[i][1]);
+            int max = parseCount(countFields[i][2]);
+            if (!(min <= likely && likely <= max)) {
+                throw new IllegalArgumentException(FunctionPointsPanel.FP_ITEMS[i] + ": need min <= likely <= max");
+            }
+            in.counts[i] = MonteCarloEstimator.triangular(min, likely, max);
+            in.complexities[i] = switch (complexityCombos[i].getSelectedIndex()) {
+                case 0 -> MonteCarloEstimator.fixed(0);
+                case 1 -> MonteCarloEstimator.fixed(1);
+                case 2 -> MonteCarloEstimator.fixed(2);
+                case 3 -> MonteCarloEstimator.uniform(0, 1);
+                case 4 -> MonteCarloEstimator.uniform(1, 2);
+                default -> MonteCarloEstimator.uniform(0, 2);
+            };
+        }
+        for (int k = 0; k < 14; k++) {
+            int lo = (Integer) vafMin[k].getSelectedItem();
+            int hi = (Integer) vafMax[k].getSelectedItem();
+            if (lo > hi) throw new IllegalArgumentException("VAF " + (k + 1) + ": min is greater than max");
+            in.vafValues[k] = MonteCarloEstimator.uniform(lo, hi);
+        }
+        return in;
+    }
+
+    private int parseCount(JTextField tf) {
+        String s = tf.getText().trim();
+        if (s.isEmpty()) return 0;
+        try {
+            return Math.max(Integer.parseInt(s), 0);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a whole number: " + s);
+        }
+    }
+
+    private void runAnalysis() {
+        MonteCarloEstimator.Input in;
+        long samples;
+        try {
+            in = readInput();
+            samples = Long.parseLong(samplesField.getText().trim().replace(",", ""));
+            if (samples <= 0) throw new IllegalArgumentException("Samples must be positive");
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Samples must be a whole number.", "Invalid Input", JOptionPane.WARNING_MESSAGE);
+            return;
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Input", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        runBtn.setEnabled(false);
+        results.setText("Running...");
+        new SwingWorker<MonteCarloEstimator.Result, Void>() {
+            @Override protected MonteCarloEstimator.Result doInBackground() {
+                return MonteCarloEstimator.run(in, samples, 2000, System.nanoTime());
+            }
+
+            @Override protected void done() {
+                runBtn.setEnabled(true);
+                try {
+                    show(get());
+                } catch (Exception ex) {
+                    results.setText("Failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void show(MonteCarloEstimator.Result r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,d samples in %.2f s (%d threads)%n",
+                r.samples, r.elapsedNanos / 1e9, java.util.concurrent.ForkJoinPool.getCommonPoolParallelism()));
+        sb.append(String.format("FP   P10 %,10.1f   P50 %,10.1f   P90 %,10.1f   mean %,10.1f   range %,.1f - %,.1f%n",
+                r.p10, r.p50, r.p90, r.mean, r.minFp, r.maxFp));
+        sb.append(String.format("LOC  P10 %,10.0f   P50 %,10.0f   P90 %,10.0f   mean %,10.0f   (%.0f LOC/FP)%n",
+                r.loc(r.p10), r.loc(r.p50), r.loc(r.p90), r.loc(r.mean), r.locPerFp));
+        results.setText(sb.toString());
+        histogram.setHistogram(r.histogram, r.histogramStart, r.binWidth);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> JComboBox<T>[] newComboArray(int n) {
+        return new JComboBox[n];
+    }
+}
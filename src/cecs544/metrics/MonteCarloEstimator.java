@@ -0,0 +1,221 @@
+package cecs544.metrics;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo FP/LOC uncertainty analysis: every count, complexity and VAF factor can be a
+ * distribution. Samples are drawn in parallel fork-join leaves, each with its own split of a
+ * SplittableRandom, so a given seed always produces the same result.
+ *
+ * FP is accumulated in exact fixed point (FP x 100 = UFP x (65 + VAF sum)) into a histogram;
+ * percentiles are read from it, exact when the FP range fits in the bin count.
+ */
+public final class MonteCarloEstimator {
+
+    private static final long LEAF_SAMPLES = 1 << 16;
+
+    private MonteCarloEstimator() {}
+
+    /** An integer-valued distribution with known bounds. */
+    public interface IntDistribution {
+        int sample(SplittableRandom rnd);
+        int min();
+        int max();
+    }
+
+    public static IntDistribution fixed(int v) {
+        return uniform(v, v);
+    }
+
+    public static IntDistribution uniform(int min, int max) {
+        if (max < min) throw new IllegalArgumentException("max < min");
+        return new IntDistribution() {
+            public int sample(SplittableRandom rnd) { return min == max ? min : rnd.nextInt(min, max + 1); }
+            public int min() { return min; }
+            public int max() { return max; }
+        };
+    }
+
+    /** Three-point (min / most likely / max) estimate, rounded to the nearest integer. */
+    public static IntDistribution triangular(int min, int mode, int max) {
+        if (!(min <= mode && mode <= max)) throw new IllegalArgumentException("Need min <= likely <= max");
+        if (min == max) return fixed(min);
+        double range = max - min;
+        double split = (mode - min) / range;
+        return new IntDistribution() {
+            public int sample(SplittableRandom rnd) {
+                double u = rnd.nextDouble();
+                double x = u < split
+                        ? min + Math.sqrt(u * range * (mode - min))
+                        : max - Math.sqrt((1 - u) * range * (max - mode));
+                return (int) Math.round(x);
+            }
+            public int min() { return min; }
+            public int max() { return max; }
+        };
+    }
+
+    /** Picks {@code values[i]} with probability proportional to {@code weights[i]}. */
+    public static IntDistribution discrete(int[] values, double[] weights) {
+        double[] cdf = new double[weights.length];
+        double total = 0;
+        int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cdf[i] = total;
+            if (weights[i] > 0) {
+                lo = Math.min(lo, values[i]);
+                hi = Math.max(hi, values[i]);
+            }
+        }
+        if (total <= 0) throw new IllegalArgumentException("Weights must not all be zero");
+        final double sum = total;
+        final int min = lo, max = hi;
+        return new IntDistribution() {
+            public int sample(SplittableRandom rnd) {
+                double u = rnd.nextDouble() * sum;
+                for (int i = 0; i < cdf.length - 1; i++) {
+                    if (u < cdf[i]) return values[i];
+                }
+                return values[cdf.length - 1];
+            }
+            public int min() { return min; }
+            public int max() { return max; }
+        };
+    }
+
+    public static final class Input {
+        public final IntDistribution[] counts = new IntDistribution[FunctionPointEngine.ITEMS];
+        public final IntDistribution[] complexities = new IntDistribution[FunctionPointEngine.ITEMS];
+        public final IntDistribution[] vafValues = new IntDistribution[FunctionPointEngine.VAF_FACTORS];
+        public String language;
+    }
+
+    public static final class Result {
+        public long samples;
+        public double mean;
+        public double minFp, maxFp;
+        public double p10, p50, p90;
+        public double locPerFp;
+        /** FP histogram: bin i covers [histogramStart + i*binWidth, + binWidth). */
+        public long[] histogram;
+        public double histogramStart, binWidth;
+        public long elapsedNanos;
+
+        public double loc(double fp) {
+            return fp * locPerFp;
+        }
+    }
+
+    public static Result run(Input in, long samples, int bins, long seed) {
+        long start = System.nanoTime();
+
+        // FP x 100 bounds from the distribution bounds (weights are increasing in complexity)
+        long ufpMin = 0, ufpMax = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            ufpMin += (long) Math.max(in.counts[i].min(), 0) * FunctionPointEngine.weight(i, in.complexities[i].min());
+            ufpMax += (long) Math.max(in.counts[i].max(), 0) * FunctionPointEngine.weight(i, in.complexities[i].max());
+        }
+        int vafMin = 0, vafMax = 0;
+        for (IntDistribution d : in.vafValues) {
+            vafMin += d.min();
+            vafMax += d.max();
+        }
+        long lo = ufpMin * (65 + vafMin);
+        long hi = ufpMax * (65 + vafMax);
+        long width = Math.max(1, (hi - lo + bins) / bins); // ceil((hi - lo + 1) / bins)
+        int binCount = (int) ((hi - lo) / width) + 1;
+
+        Leaf task = new Leaf(in, new SplittableRandom(seed), samples, lo, width, binCount);
+        Leaf done = ForkJoinPool.commonPool().invoke(task);
+
+        Result r = new Result();
+        r.samples = samples;
+        r.mean = samples == 0 ? 0 : done.sum / 100.0 / samples;
+        r.minFp = done.min / 100.0;
+        r.maxFp = done.max / 100.0;
+        r.histogram = done.histogram;
+        r.histogramStart = lo / 100.0;
+        r.binWidth = width / 100.0;
+        r.p10 = percentile(r, 0.10);
+        r.p50 = percentile(r, 0.50);
+        r.p90 = percentile(r, 0.90);
+        r.locPerFp = FunctionPointEngine.locPerFp(in.language);
+        r.elapsedNanos = System.nanoTime() - start;
+        return r;
+    }
+
+    /** Smallest bin start whose cumulative count reaches {@code q} of the samples. */
+    public static double percentile(Result r, double q) {
+        long target = (long) Math.ceil(q * r.samples);
+        long seen = 0;
+        for (int i = 0; i < r.histogram.length; i++) {
+            seen += r.histogram[i];
+            if (seen >= target && seen > 0) return r.histogramStart + i * r.binWidth;
+        }
+        return r.maxFp;
+    }
+
+    private static final class Leaf extends RecursiveTask<Leaf> {
+        private final Input in;
+        private final SplittableRandom rnd;
+        private final long samples;
+        private final long lo, width;
+        private final int binCount;
+
+        long[] histogram;
+        long sum;
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+        Leaf(Input in, SplittableRandom rnd, long samples, long lo, long width, int binCount) {
+            this.in = in;
+            this.rnd = rnd;
+            this.samples = samples;
+            this.lo = lo;
+            this.width = width;
+            this.binCount = binCount;
+        }
+
+        @Override
+        protected Leaf compute() {
+            if (samples > LEAF_SAMPLES) {
+                long half = samples / 2;
+                Leaf left = new Leaf(in, rnd.split(), half, lo, width, binCount);
+                Leaf right = new Leaf(in, rnd.split(), samples - half, lo, width, binCount);
+                left.fork();
+                right.compute();
+                left.join();
+                return merge(left, right);
+            }
+
+            histogram = new long[binCount];
+            for (long s = 0; s < samples; s++) {
+                long ufp = 0; // same widening as the ufpMin/ufpMax bounds, so large counts cannot wrap
+                for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+                    int count = in.counts[i].sample(rnd);
+                    ufp += (long) Math.max(count, 0) * FunctionPointEngine.weight(i, in.complexities[i].sample(rnd));
+                }
+                int vafSum = 0;
+                for (IntDistribution d : in.vafValues) vafSum += d.sample(rnd);
+
+                long fp100 = ufp * (65 + vafSum);
+                histogram[(int) ((fp100 - lo) / width)]++;
+                sum += fp100;
+                if (fp100 < min) min = fp100;
+                if (fp100 > max) max = fp100;
+            }
+            return this;
+        }
+
+        private Leaf merge(Leaf a, Leaf b) {
+            histogram = a.histogram;
+            for (int i = 0; i < histogram.length; i++) histogram[i] += b.histogram[i];
+            sum = a.sum + b.sum;
+            min = Math.min(a.min, b.min);
+            max = Math.max(a.max, b.max);
+            return this;
+        }
+    }
+}
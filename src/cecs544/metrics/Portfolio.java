@@ -0,0 +1,160 @@
+package cecs544.metrics;
+
+import java.util.*;
+
+/**
+ * Collection-level sibling of {@link ProjectModel}: holds many FP states in packed primitive columns.
+ *
+ * Per project: five int count columns, one long with the complexities and VAF values bit-packed
+ * (same layout as {@link ProjectBinary}), and an interned language id - about 30 bytes.
+ * Derived values are recomputed on access. Not thread-safe.
+ */
+public class Portfolio {
+
+    private int size;
+    private final int[][] counts = new int[FunctionPointEngine.ITEMS][];
+    private long[] packed;
+    private char[] languageIds;
+
+    // id 0 is reserved for "no language"
+    private final List<String> languages = new ArrayList<>();
+    private final Map<String, Integer> languageIndex = new HashMap<>();
+
+    public Portfolio() {
+        this(16);
+    }
+
+    public Portfolio(int capacity) {
+        capacity = Math.max(capacity, 1);
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) counts[i] = new int[capacity];
+        packed = new long[capacity];
+        languageIds = new char[capacity];
+        languages.add(null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Appends a copy of {@code s}; returns its index. */
+    public int add(ProjectModel.FPState s) {
+        if (size == packed.length) grow();
+        set(size++, s);
+        return size - 1;
+    }
+
+    public void set(int index, ProjectModel.FPState s) {
+        Objects.checkIndex(index, size);
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) counts[i][index] = s.counts[i];
+        packed[index] = ProjectBinary.pack(s.complexities, s.vafValues);
+        languageIds[index] = (char) languageId(s.language);
+    }
+
+    public int count(int index, int item) {
+        return counts[item][index];
+    }
+
+    public int complexity(int index, int item) {
+        return ProjectBinary.complexity(packed[index], item);
+    }
+
+    public int vafValue(int index, int factor) {
+        return ProjectBinary.vafValue(packed[index], factor);
+    }
+
+    public int vafSum(int index) {
+        long p = packed[index];
+        int sum = 0;
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) sum += ProjectBinary.vafValue(p, k);
+        return sum;
+    }
+
+    public int totalWeighted(int index) {
+        long p = packed[index];
+        int total = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            total += FunctionPointEngine.weighted(i, counts[i][index], ProjectBinary.complexity(p, i));
+        }
+        return total;
+    }
+
+    public double functionPoints(int index) {
+        return FunctionPointEngine.functionPoints(totalWeighted(index), vafSum(index));
+    }
+
+    public String language(int index) {
+        return languages.get(languageIds[index]);
+    }
+
+    public int languageIdAt(int index) {
+        return languageIds[index];
+    }
+
+    /** Interns {@code language} and returns its id (0 for null). */
+    public int languageId(String language) {
+        if (language == null) return 0;
+        Integer id = languageIndex.get(language);
+        if (id == null) {
+            if (languages.size() > Character.MAX_VALUE) throw new IllegalStateException("Too many distinct languages");
+            id = languages.size();
+            languages.add(language);
+            languageIndex.put(language, id);
+        }
+        return id;
+    }
+
+    /** Copies project {@code index} into {@code out} (derived fields included, fpFormatted left alone). */
+    public ProjectModel.FPState copyTo(int index, ProjectModel.FPState out) {
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) out.counts[i] = counts[i][index];
+        ProjectBinary.unpack(packed[index], out.complexities, out.vafValues);
+        out.language = language(index);
+        out.totalWeighted = totalWeighted(index);
+        out.vafSum = vafSum(index);
+        return out;
+    }
+
+    public View view(int index) {
+        return new View().moveTo(index);
+    }
+
+    private void grow() {
+        int cap = packed.length + (packed.length >> 1) + 1;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) counts[i] = Arrays.copyOf(counts[i], cap);
+        packed = Arrays.copyOf(packed, cap);
+        languageIds = Arrays.copyOf(languageIds, cap);
+    }
+
+    /**
+     * Flyweight with FPState-style accessors over one row; {@link #moveTo} re-points it,
+     * so one View can walk the whole portfolio without allocating.
+     */
+    public final class View {
+        private int index;
+
+        public View moveTo(int index) {
+            Objects.checkIndex(index, size);
+            this.index = index;
+            return this;
+        }
+
+        public int index() { return index; }
+
+        public String language() { return Portfolio.this.language(index); }
+
+        public int count(int item) { return Portfolio.this.count(index, item); }
+
+        public int complexity(int item) { return Portfolio.this.complexity(index, item); }
+
+        public int vafValue(int factor) { return Portfolio.this.vafValue(index, factor); }
+
+        public int totalWeighted() { return Portfolio.this.totalWeighted(index); }
+
+        public int vafSum() { return Portfolio.this.vafSum(index); }
+
+        public double functionPoints() { return Portfolio.this.functionPoints(index); }
+
+        public double linesOfCode() {
+            return FunctionPointEngine.linesOfCode(functionPoints(), language());
+        }
+    }
+}
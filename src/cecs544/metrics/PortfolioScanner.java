@@ -0,0 +1,151 @@
+package cecs544.metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Command-line portfolio mode: walks a directory tree, decodes every .ms file in parallel
+ * and streams one tab-separated line per project (path, name, language, UFP, VAF sum, FP, LOC).
+ * A project's {@link ProjectJournal} is replayed onto its snapshot, as Open does.
+ *
+ * The work queue is bounded and the walker runs overflow tasks itself, so memory stays flat
+ * no matter how many files the tree holds. With {@code --csv} or {@code --report} the rows go to
+ * a {@link ReportExporter} instead (gzip-compressed when the file name ends in .gz).
+ */
+public class PortfolioScanner {
+
+    private final int threads;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final DoubleAdder totalFp = new DoubleAdder();
+    private ReportExporter exporter;
+
+    private static final ProjectModel.FPState EMPTY = new ProjectModel.FPState();
+
+    public PortfolioScanner(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        Path export = null;
+        ReportExporter.Format format = null;
+        for (int i = 0; i < rest.size() - 1; i++) {
+            String opt = rest.get(i);
+            if (opt.equals("--csv") || opt.equals("--report")) {
+                export = Paths.get(rest.remove(i + 1));
+                format = opt.equals("--csv") ? ReportExporter.Format.CSV : ReportExporter.Format.TEXT;
+                rest.remove(i);
+                break;
+            }
+        }
+        if (rest.size() < 1) {
+            System.err.println("Usage: PortfolioScanner <directory> [threads] [--csv <file> | --report <file>]");
+            System.exit(2);
+        }
+        Path root = Paths.get(rest.get(0));
+        int threads = rest.size() > 1 ? Integer.parseInt(rest.get(1)) : Runtime.getRuntime().availableProcessors();
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+        PortfolioScanner scanner = new PortfolioScanner(threads);
+
+        long start = System.nanoTime();
+        if (export != null) {
+            boolean gzip = export.getFileName().toString().toLowerCase().endsWith(".gz");
+            try (ReportExporter exporter = ReportExporter.open(export, format, gzip)) {
+                scanner.setExporter(exporter);
+                scanner.scan(root, out);
+            }
+        } else {
+            scanner.scan(root, out);
+        }
+        out.flush();
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        System.err.printf("Scanned %,d files (%,d failed) in %.2f s, %,.0f files/sec, total FP %,.1f%n",
+                scanner.scanned.get(), scanner.failed.get(), secs,
+                scanner.scanned.get() / Math.max(secs, 1e-9), scanner.totalFp.sum());
+    }
+
+    public long getScanned() { return scanned.get(); }
+
+    public long getFailed() { return failed.get(); }
+
+    public double getTotalFp() { return totalFp.sum(); }
+
+    /** Sends rows to {@code exporter} instead of the tab-separated output; null restores it. */
+    public void setExporter(ReportExporter exporter) { this.exporter = exporter; }
+
+    public void scan(Path root, PrintWriter out) throws IOException, InterruptedException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        ThreadLocal<JsonMini.PullParser> parsers = ThreadLocal.withInitial(() -> JsonMini.newParser(Reader.nullReader()));
+
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase().endsWith(".ms")) {
+                        pool.execute(() -> scanFile(file, parsers.get(), out));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    failed.incrementAndGet();
+                    System.err.println(file + ": " + ex.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void scanFile(Path file, JsonMini.PullParser parser, PrintWriter out) {
+        ProjectModel m;
+        try (InputStream in = Files.newInputStream(file)) {
+            m = ProjectModel.read(in, parser);
+            ProjectJournal.applyJournal(file, m); // journaled autosaves since the last snapshot
+        } catch (Exception ex) {
+            failed.incrementAndGet();
+            System.err.println(file + ": " + ex.getMessage());
+            return;
+        }
+
+        ProjectModel.FPState s = m.fpState;
+        String lang = (s != null && s.language != null) ? s.language : m.language;
+        // versions of a project often share their FP inputs; the cache also keeps the formatted text
+        FpCache.Value r = FpCache.shared().get(s != null ? s : EMPTY, lang);
+
+        scanned.incrementAndGet();
+        totalFp.add(r.fp);
+
+        if (exporter != null) {
+            try {
+                exporter.write(m);
+            } catch (IOException ex) {
+                failed.incrementAndGet();
+                System.err.println(file + ": export failed: " + ex.getMessage());
+            }
+            return;
+        }
+
+        String line = file + "\t" + m.projectName + "\t" + lang + "\t" + r.totalWeighted + "\t" + r.vafSum
+                + "\t" + r.fpText() + "\t" + r.locText();
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+}
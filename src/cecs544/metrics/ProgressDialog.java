@@ -0,0 +1,192 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs file work on a SwingWorker and shows a progress bar with a Cancel button while it runs.
+ * Only the success/failure callbacks are called on the EDT. The dialog appears only if the
+ * work takes longer than a moment, so small files don't flash it.
+ */
+public class ProgressDialog extends JDialog {
+
+    private static final int SHOW_DELAY_MS = 250;
+
+    public interface Work<T> {
+        T run(Progress progress) throws Exception;
+    }
+
+    /** Shared between the worker (writes) and the dialog (polls). */
+    public static final class Progress {
+        private volatile long done;
+        private volatile long total = -1; // unknown
+        private volatile boolean cancelled;
+        private boolean finished; // guarded by this; once set, a cancel comes too late
+
+        synchronized boolean cancel() {
+            if (finished) return false;
+            cancelled = true;
+            return true;
+        }
+
+        /** False when the user cancelled first, i.e. the result will not be delivered. */
+        synchronized boolean finish() {
+            finished = true;
+            return !cancelled;
+        }
+
+        public void setTotal(long total) { this.total = total; }
+
+        public boolean isCancelled() { return cancelled; }
+
+        public void advance(long n) throws InterruptedIOException {
+            if (cancelled) throw new InterruptedIOException("Cancelled");
+            done += n;
+        }
+
+        public InputStream wrap(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) advance(1);
+                    return b;
+                }
+
+                @Override public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = super.read(buf, off, len);
+                    if (n > 0) advance(n);
+                    return n;
+                }
+            };
+        }
+
+        public OutputStream wrap(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override public void write(int b) throws IOException {
+                    out.write(b);
+                    advance(1);
+                }
+
+                @Override public void write(byte[] buf, int off, int len) throws IOException {
+                    out.write(buf, off, len);
+                    advance(len);
+                }
+            };
+        }
+    }
+
+    private final JProgressBar bar = new JProgressBar();
+    private final JLabel status = new JLabel(" ");
+
+    private ProgressDialog(JFrame owner, String title, String message, Runnable onCancel) {
+        super(owner, title, true);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(e -> {
+            cancel.setEnabled(false);
+            status.setText("Cancelling...");
+            onCancel.run();
+        });
+
+        JPanel center = new JPanel(new GridLayout(0, 1, 6, 6));
+        center.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        center.add(new JLabel(message));
+        center.add(bar);
+        center.add(status);
+
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btns.add(cancel);
+
+        setLayout(new BorderLayout(10, 10));
+        add(center, BorderLayout.CENTER);
+        add(btns, BorderLayout.SOUTH);
+        setSize(380, 170);
+        setLocationRelativeTo(owner);
+    }
+
+    private void refresh(Progress p) {
+        long total = p.total;
+        if (total > 0) {
+            bar.setIndeterminate(false);
+            bar.setValue((int) Math.min(100, p.done * 100 / total));
+            status.setText(String.format("%,d of %,d KB", p.done / 1024, total / 1024));
+        } else {
+            bar.setIndeterminate(true);
+            status.setText(String.format("%,d KB", p.done / 1024));
+        }
+    }
+
+    /**
+     * Starts {@code work} off the EDT. Exactly one of the callbacks runs on the EDT afterwards,
+     * unless the user cancels, in which case neither does.
+     */
+    public static <T> void run(JFrame owner, String title, String message, Work<T> work,
+                               Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        run(owner, title, message, work, onSuccess, onFailure, result -> {});
+    }
+
+    /**
+     * Same as above, except that a cancel runs {@code onCancel} on the EDT once the work has
+     * actually stopped, with the result it still produced (or null if it failed or was
+     * interrupted), so callers can release or adopt whatever it got done.
+     */
+    public static <T> void run(JFrame owner, String title, String message, Work<T> work,
+                               Consumer<T> onSuccess, Consumer<Exception> onFailure, Consumer<T> onCancel) {
+        Progress progress = new Progress();
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                T result = null;
+                try {
+                    result = work.run(progress);
+                    return result;
+                } finally {
+                    if (!progress.finish()) {
+                        T produced = result;
+                        SwingUtilities.invokeLater(() -> onCancel.accept(produced));
+                    }
+                }
+            }
+        };
+
+        ProgressDialog dlg = new ProgressDialog(owner, title, message, () -> {
+            if (progress.cancel()) worker.cancel(true);
+        });
+
+        Timer poll = new Timer(100, e -> dlg.refresh(progress));
+        Timer show = new Timer(SHOW_DELAY_MS, e -> {
+            if (!worker.isDone()) {
+                poll.start();
+                dlg.refresh(progress);
+                dlg.setVisible(true); // modal: blocks here until done() disposes it
+            }
+        });
+        show.setRepeats(false);
+
+        worker.addPropertyChangeListener(evt -> {
+            if (!"state".equals(evt.getPropertyName()) || evt.getNewValue() != SwingWorker.StateValue.DONE) return;
+            show.stop();
+            poll.stop();
+            dlg.dispose();
+
+            if (progress.isCancelled() || worker.isCancelled()) return;
+            try {
+                onSuccess.accept(worker.get());
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                onFailure.accept(cause instanceof Exception e ? e : new RuntimeException(cause));
+            } catch (InterruptedException | CancellationException ignored) {
+                // cancelled between the checks above
+            }
+        });
+
+        worker.execute();
+        show.start();
+    }
+}
@@ -0,0 +1,207 @@
+package cecs544.metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compact binary encoding of a {@link ProjectModel}, interchangeable with the JSON .ms format.
+ *
+ * Layout: magic (0x89 'M' 'S' 'B'), version byte, flags byte, then the names and language, the
+ * five counts as zig-zag varints and one 52-bit word holding the complexities (2 bits each)
+ * and VAF values (3 bits each). Every string is a varint byte length (-1 for null) followed by
+ * UTF-8, so any name that saves as JSON saves here too; version 1 files (modified UTF-8 with
+ * a 64 KB limit, optional strings flagged) still load. totalWeighted/vafSum are derived and only stored when they
+ * disagree with the inputs, so JSON -> binary -> JSON is lossless for in-range values; an
+ * out-of-range complexity reads back as Average and a VAF value as its clamped 0-7 value,
+ * with the stored totals unchanged.
+ */
+public final class ProjectBinary {
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'M', 'S', 'B'};
+    public static final int VERSION = 2;
+
+    // flags; the string ones are only used by version 1, where strings are not nullable
+    private static final int HAS_LANGUAGE = 1;
+    private static final int HAS_FP_STATE = 1 << 1;
+    private static final int HAS_FP_LANGUAGE = 1 << 2;
+    private static final int HAS_FP_FORMATTED = 1 << 3;
+    private static final int HAS_DERIVED = 1 << 4;
+
+    private static final int COMPLEXITY_BITS = 2;
+    private static final int VAF_BITS = 3;
+    private static final int VAF_SHIFT = FunctionPointEngine.ITEMS * COMPLEXITY_BITS;
+
+    private ProjectBinary() {}
+
+    public static boolean isBinary(byte[] head, int len) {
+        if (len < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    public static boolean isBinary(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            return isBinary(head, head.length);
+        }
+    }
+
+    /** Peeks at the byte stream a parser was just reset to, without consuming anything. */
+    static boolean isBinary(JsonMini.PullParser p) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        return isBinary(head, p.peekBytes(head));
+    }
+
+    public static void write(ProjectModel m, OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        ProjectModel.FPState s = m.fpState;
+
+        int flags = 0;
+        long packed = 0;
+        if (s != null) {
+            flags |= HAS_FP_STATE;
+            // compare with what read() derives from the packed (normalized / clamped) values
+            packed = pack(s.complexities, s.vafValues);
+            int[] complexities = new int[FunctionPointEngine.ITEMS];
+            int[] vafValues = new int[FunctionPointEngine.VAF_FACTORS];
+            unpack(packed, complexities, vafValues);
+            if (s.totalWeighted != FunctionPointEngine.totalWeighted(s.counts, complexities)
+                    || s.vafSum != FunctionPointEngine.vafSum(vafValues)) {
+                flags |= HAS_DERIVED;
+            }
+        }
+
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(flags);
+        writeString(out, m.projectName);
+        writeString(out, m.creatorName);
+        writeString(out, m.language);
+
+        if (s != null) {
+            writeString(out, s.language);
+            for (int i = 0; i < FunctionPointEngine.ITEMS; i++) writeVarint(out, s.counts[i]);
+
+            for (int shift = 0; shift < 56; shift += 8) out.writeByte((int) (packed >>> shift));
+
+            writeString(out, s.fpFormatted);
+            if ((flags & HAS_DERIVED) != 0) {
+                writeVarint(out, s.totalWeighted);
+                writeVarint(out, s.vafSum);
+            }
+        }
+        out.flush();
+    }
+
+    public static ProjectModel read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        byte[] head = new byte[MAGIC.length];
+        in.readFully(head);
+        if (!isBinary(head, head.length)) throw new IllegalArgumentException("Invalid project file.");
+        int version = in.readUnsignedByte();
+        if (version != 1 && version != VERSION) throw new IllegalArgumentException("Unsupported binary project version: " + version);
+        boolean v1 = version == 1;
+        int flags = in.readUnsignedByte();
+
+        ProjectModel m = new ProjectModel();
+        m.projectName = v1 ? in.readUTF() : readString(in);
+        m.creatorName = v1 ? in.readUTF() : readString(in);
+        m.language = v1 ? ((flags & HAS_LANGUAGE) != 0 ? in.readUTF() : null) : readString(in);
+
+        if ((flags & HAS_FP_STATE) != 0) {
+            ProjectModel.FPState s = new ProjectModel.FPState();
+            s.language = v1 ? ((flags & HAS_FP_LANGUAGE) != 0 ? in.readUTF() : null) : readString(in);
+            for (int i = 0; i < FunctionPointEngine.ITEMS; i++) s.counts[i] = readVarint(in);
+
+            long packed = 0;
+            for (int shift = 0; shift < 56; shift += 8) packed |= (long) in.readUnsignedByte() << shift;
+            unpack(packed, s.complexities, s.vafValues);
+
+            s.fpFormatted = v1 ? ((flags & HAS_FP_FORMATTED) != 0 ? in.readUTF() : null) : readString(in);
+            if ((flags & HAS_DERIVED) != 0) {
+                s.totalWeighted = readVarint(in);
+                s.vafSum = readVarint(in);
+            } else {
+                s.totalWeighted = FunctionPointEngine.totalWeighted(s.counts, s.complexities);
+                s.vafSum = FunctionPointEngine.vafSum(s.vafValues);
+            }
+            m.fpState = s;
+        }
+        return m;
+    }
+
+    /**
+     * Packs 5 complexities (2 bits) and 14 VAF values (3 bits) into the low 52 bits of a long.
+     * Complexities are normalized the way the engine reads them and VAF values clamped to 0-7,
+     * so anything the JSON loader accepts can be packed.
+     */
+    static long pack(int[] complexities, int[] vafValues) {
+        long packed = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            int cx = FunctionPointEngine.normalizeComplexity(complexities[i]);
+            packed |= (long) cx << (i * COMPLEXITY_BITS);
+        }
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+            int v = Math.min(Math.max(vafValues[k], 0), 7);
+            packed |= (long) v << (VAF_SHIFT + k * VAF_BITS);
+        }
+        return packed;
+    }
+
+    static void unpack(long packed, int[] complexities, int[] vafValues) {
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) complexities[i] = complexity(packed, i);
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) vafValues[k] = vafValue(packed, k);
+    }
+
+    static int complexity(long packed, int item) {
+        return (int) (packed >>> (item * COMPLEXITY_BITS)) & 0x3;
+    }
+
+    static int vafValue(long packed, int factor) {
+        return (int) (packed >>> (VAF_SHIFT + factor * VAF_BITS)) & 0x7;
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            writeVarint(out, -1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = readVarint(in);
+        if (len < 0) {
+            if (len != -1) throw new IllegalArgumentException("Malformed string length: " + len);
+            return null;
+        }
+        byte[] utf8 = in.readNBytes(len); // grows as it reads, so a corrupt length cannot over-allocate
+        if (utf8.length != len) throw new EOFException();
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(DataOutput out, int v) throws IOException {
+        int z = (v << 1) ^ (v >> 31); // zig-zag so small negatives stay short
+        while ((z & ~0x7F) != 0) {
+            out.writeByte((z & 0x7F) | 0x80);
+            z >>>= 7;
+        }
+        out.writeByte(z);
+    }
+
+    private static int readVarint(DataInput in) throws IOException {
+        int z = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            z |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (z >>> 1) ^ -(z & 1);
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
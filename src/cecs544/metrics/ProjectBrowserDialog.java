@@ -0,0 +1,265 @@
+package cecs544.metrics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * File > Browse Projects: search and sort every project under a directory through its
+ * {@link ProjectIndex}, then open one. The list follows changes on disk while the dialog is up.
+ */
+public class ProjectBrowserDialog extends JDialog {
+
+    private static final String ANY = "Any language";
+    private static final String NONE = "(none)";
+
+    private final JFrame owner;
+    private ProjectIndex index;
+    private final Runnable onIndexChange = () -> SwingUtilities.invokeLater(this::refresh);
+
+    private final EntryModel model = new EntryModel();
+    private final JTable table = new JTable(model);
+    private final JLabel dirLabel = new JLabel();
+    private final JLabel status = new JLabel(" ");
+    private final JTextField searchField = new JTextField(16);
+    private final JComboBox<String> languageBox = new JComboBox<>();
+    private final JTextField minFpField = new JTextField(6);
+
+    private Path selected;
+
+    /** {@code index} may be null; the user then picks a directory first. */
+    public ProjectBrowserDialog(JFrame owner, ProjectIndex index) {
+        super(owner, "Browse Projects", true);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE); // dispose() unhooks the index listener
+        this.owner = owner;
+        setSize(900, 520);
+        setLocationRelativeTo(owner);
+
+        TableRowSorter<EntryModel> sorter = new TableRowSorter<>(model);
+        sorter.setComparator(0, String.CASE_INSENSITIVE_ORDER);
+        sorter.setComparator(1, String.CASE_INSENSITIVE_ORDER);
+        sorter.setComparator(2, String.CASE_INSENSITIVE_ORDER);
+        sorter.setComparator(5, String.CASE_INSENSITIVE_ORDER);
+        table.setRowSorter(sorter);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+        table.getColumnModel().getColumn(5).setPreferredWidth(260);
+        table.addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && table.getSelectedRow() >= 0) openSelected();
+            }
+        });
+
+        languageBox.addItem(ANY);
+        for (int id = 1; id < FunctionPointEngine.LANGUAGES.length; id++) languageBox.addItem(FunctionPointEngine.LANGUAGES[id]);
+        languageBox.addItem(NONE);
+        languageBox.addActionListener(e -> refresh());
+        searchField.getDocument().addDocumentListener((FunctionPointsPanel.SimpleDocListener) e -> refresh());
+        minFpField.getDocument().addDocumentListener((FunctionPointsPanel.SimpleDocListener) e -> refresh());
+
+        JButton choose = new JButton("Directory...");
+        choose.addActionListener(e -> chooseDirectory());
+        JPanel top = new JPanel(new GridLayout(2, 1, 4, 4));
+        JPanel dirRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        dirRow.add(choose);
+        dirRow.add(dirLabel);
+        JPanel filterRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        filterRow.add(new JLabel("Name or creator:"));
+        filterRow.add(searchField);
+        filterRow.add(languageBox);
+        filterRow.add(new JLabel("Min FP:"));
+        filterRow.add(minFpField);
+        top.add(dirRow);
+        top.add(filterRow);
+
+        JButton open = new JButton("Open");
+        JButton cancel = new JButton("Cancel");
+        open.addActionListener(e -> openSelected());
+        cancel.addActionListener(e -> dispose());
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(status, BorderLayout.WEST);
+        JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btns.add(open);
+        btns.add(cancel);
+        bottom.add(btns, BorderLayout.EAST);
+
+        setLayout(new BorderLayout(10, 10));
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+        getRootPane().setDefaultButton(open);
+
+        setIndex(index);
+    }
+
+    /** The .ms file picked with Open, or null. */
+    public Path getSelectedFile() {
+        return selected;
+    }
+
+    /** The index in use when the dialog closed (the owner keeps it for next time). */
+    public ProjectIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void dispose() {
+        if (index != null) index.removeListener(onIndexChange);
+        super.dispose();
+    }
+
+    private void setIndex(ProjectIndex index) {
+        if (this.index != null) this.index.removeListener(onIndexChange);
+        this.index = index;
+        if (index != null) index.addListener(onIndexChange);
+        dirLabel.setText(index != null ? index.getRoot().toString() : "No directory chosen");
+        refresh();
+    }
+
+    private void chooseDirectory() {
+        JFileChooser chooser = new JFileChooser(index != null ? index.getRoot().toFile() : null);
+        chooser.setDialogTitle("Project Directory");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File dir = chooser.getSelectedFile();
+        ProjectIndex previous = index;
+        ProgressDialog.run(owner, "Browse Projects", "Indexing " + dir.getName() + "...",
+                progress -> {
+                    ProjectIndex opened = ProjectIndex.open(dir.toPath());
+                    opened.startWatching();
+                    return opened;
+                },
+                opened -> {
+                    setIndex(opened);
+                    if (previous != null) {
+                        try {
+                            previous.close();
+                        } catch (java.io.IOException ignored) {}
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Indexing failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE),
+                cancelled -> {
+                    // cancelled after the watcher started: nobody else holds this index
+                    if (cancelled == null) return;
+                    try {
+                        cancelled.close();
+                    } catch (java.io.IOException ignored) {}
+                });
+    }
+
+    private void refresh() {
+        if (index == null) {
+            model.setEntries(List.of());
+            status.setText(" ");
+            return;
+        }
+        Predicate<ProjectIndex.Entry> filter = filter();
+        if (filter == null) {
+            status.setText("Min FP must be a number");
+            return;
+        }
+        long start = System.nanoTime();
+        List<ProjectIndex.Entry> hits = index.query(filter, null);
+        double ms = (System.nanoTime() - start) / 1e6;
+        model.setEntries(hits);
+        String text = String.format("  %,d of %,d projects (%.1f ms)", hits.size(), index.size(), ms);
+        Map<String, String> unreadable = index.unreadableFiles();
+        if (!unreadable.isEmpty()) text += String.format(", %,d unreadable", unreadable.size());
+        String problem = index.getProblem();
+        if (problem != null) text += " - " + problem;
+        status.setText(text);
+        status.setToolTipText(unreadable.isEmpty() ? null : unreadableTip(unreadable));
+    }
+
+    private static String unreadableTip(Map<String, String> unreadable) {
+        StringBuilder sb = new StringBuilder("<html>");
+        int shown = 0;
+        for (Map.Entry<String, String> f : unreadable.entrySet()) {
+            if (shown++ == 20) {
+                sb.append(String.format("... and %,d more", unreadable.size() - 20));
+                break;
+            }
+            sb.append(escape(f.getKey())).append(": ").append(escape(f.getValue())).append("<br>");
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String s) {
+        return s == null ? "" : s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private Predicate<ProjectIndex.Entry> filter() {
+        String text = searchField.getText().trim().toLowerCase();
+        String lang = (String) languageBox.getSelectedItem();
+        long minFp100;
+        try {
+            String s = minFpField.getText().trim();
+            minFp100 = s.isEmpty() ? Long.MIN_VALUE : Math.round(Double.parseDouble(s) * 100);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return e -> e.fp100() >= minFp100
+                && (ANY.equals(lang) || (NONE.equals(lang) ? e.language() == null || e.language().equals("None") : lang.equals(e.language())))
+                && (text.isEmpty() || contains(e.projectName(), text) || contains(e.creatorName(), text));
+    }
+
+    private static boolean contains(String s, String lowerNeedle) {
+        return s != null && s.toLowerCase().contains(lowerNeedle);
+    }
+
+    private void openSelected() {
+        int row = table.getSelectedRow();
+        if (row < 0) return;
+        selected = index.resolve(model.entries.get(table.convertRowIndexToModel(row)));
+        dispose();
+    }
+
+    private static final class EntryModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Project", "Creator", "Language", "UFP", "FP", "File"};
+        private List<ProjectIndex.Entry> entries = new ArrayList<>();
+
+        void setEntries(List<ProjectIndex.Entry> entries) {
+            this.entries = entries;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return entries.size(); }
+
+        @Override public int getColumnCount() { return COLUMNS.length; }
+
+        @Override public String getColumnName(int column) { return COLUMNS[column]; }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 3 -> Integer.class;
+                case 4 -> Double.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            ProjectIndex.Entry e = entries.get(row);
+            return switch (column) {
+                case 0 -> e.projectName() == null ? "" : e.projectName();
+                case 1 -> e.creatorName() == null ? "" : e.creatorName();
+                case 2 -> e.language() == null ? "" : e.language();
+                case 3 -> e.totalWeighted();
+                case 4 -> e.fp();
+                default -> e.path();
+            };
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package cecs544.metrics;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * On-disk index of the .ms files under one directory, kept in {@value #INDEX_FILE} there:
+ * path, mtime, size, content hash (CRC32), project and creator name, language, UFP and FP.
+ *
+ * Opening the index only re-reads files whose size or mtime changed since it was written, and
+ * only re-parses those whose hash changed too. A project's {@link ProjectJournal} is replayed onto
+ * it, and a change to the journal alone counts as a change to the project. {@link #startWatching}
+ * keeps it current from WatchService events the same way, so queries never have to open a project file.
+ */
+public class ProjectIndex implements Closeable {
+
+    public static final String INDEX_FILE = ".ms-index";
+
+    private static final int MAGIC = 0x4D534958; // "MSIX"
+    private static final int VERSION = 3;
+    private static final long SETTLE_MS = 200; // a save is several events; apply them as one batch
+    private static final long RETRY_MS = 5000; // rescan interval while some directory is not watched
+
+    private static final Metrics.Timer UPDATE_TIMER = Metrics.timer("index.update");
+    private static final Metrics.Timer QUERY_TIMER = Metrics.timer("index.query");
+
+    /**
+     * One indexed project; {@code path} is relative to the index root, with '/' separators.
+     * The journal fields are -1 when the project has no journal.
+     */
+    public record Entry(String path, long mtime, long size, int hash, long journalMtime, long journalSize,
+                        String projectName, String creatorName, String language, int totalWeighted, long fp100) {
+        public double fp() { return fp100 / 100.0; }
+    }
+
+    private final Path root;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // files that could not be read or parsed, by stat, so they are retried only once they change
+    private final Map<String, Unreadable> unreadable = new ConcurrentHashMap<>();
+    private final ThreadLocal<JsonMini.PullParser> parsers = ThreadLocal.withInitial(() -> JsonMini.newParser(Reader.nullReader()));
+
+    private record Unreadable(String stat, String reason) {}
+
+    private WatchService watchService;
+    private Thread watcher;
+    // directories the watch service refused; the watcher retries them and rescans meanwhile
+    private final Set<Path> unwatched = ConcurrentHashMap.newKeySet();
+    private volatile String lastFailure; // last failed update or index write, null after a good one
+
+    private ProjectIndex(Path root) {
+        this.root = root;
+    }
+
+    /** Loads the index of {@code dir} (if any) and brings it up to date with the files on disk. */
+    public static ProjectIndex open(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) throw new IllegalArgumentException("Not a directory: " + dir);
+        ProjectIndex index = new ProjectIndex(dir.toAbsolutePath().normalize());
+        index.load();
+        index.rescan();
+        return index;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        boolean watch = rest.remove("--watch");
+        String language = option(rest, "--language");
+        String creator = option(rest, "--creator");
+        String minFp = option(rest, "--min-fp");
+        if (rest.size() != 1) {
+            System.err.println("Usage: ProjectIndex <directory> [--language L] [--creator C] [--min-fp N] [--watch]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        ProjectIndex index = open(Paths.get(rest.get(0)));
+        System.err.printf("Indexed %,d projects in %.2f s%n", index.size(), (System.nanoTime() - start) / 1e9);
+        index.unreadableFiles().forEach((path, reason) -> System.err.println("Skipped " + path + ": " + reason));
+
+        Predicate<Entry> filter = e -> (language == null || language.equalsIgnoreCase(String.valueOf(e.language())))
+                && (creator == null || creator.equalsIgnoreCase(e.creatorName()))
+                && (minFp == null || e.fp() >= Double.parseDouble(minFp));
+        Runnable print = () -> {
+            long t = System.nanoTime();
+            List<Entry> hits = index.query(filter, Comparator.comparingLong(Entry::fp100).reversed());
+            double ms = (System.nanoTime() - t) / 1e6;
+            for (Entry e : hits) {
+                System.out.println(e.path() + "\t" + e.projectName() + "\t" + e.creatorName() + "\t" + e.language()
+                        + "\t" + e.totalWeighted() + "\t" + String.format("%.1f", e.fp()));
+            }
+            System.err.printf("%,d matches in %.1f ms%n", hits.size(), ms);
+            String problem = index.getProblem();
+            if (problem != null) System.err.println(problem);
+        };
+        print.run();
+
+        if (watch) {
+            index.addListener(print);
+            index.startWatching();
+            Thread.currentThread().join(); // until killed
+        }
+    }
+
+    private static String option(List<String> args, String name) {
+        int i = args.indexOf(name);
+        if (i < 0 || i + 1 >= args.size()) return null;
+        String value = args.remove(i + 1);
+        args.remove(i);
+        return value;
+    }
+
+    public Path getRoot() { return root; }
+
+    public int size() { return entries.size(); }
+
+    public Path resolve(Entry e) { return root.resolve(e.path()); }
+
+    /** Called (on the watcher thread) after every change to the index. */
+    public void addListener(Runnable l) { listeners.add(l); }
+
+    public void removeListener(Runnable l) { listeners.remove(l); }
+
+    /** Project files left out of the index because they could not be read or parsed, with the reason. */
+    public Map<String, String> unreadableFiles() {
+        Map<String, String> out = new TreeMap<>();
+        unreadable.forEach((k, u) -> out.put(k, u.reason()));
+        return out;
+    }
+
+    /** What keeps the index from being fully current (a failed update, unwatched directories), or null. */
+    public String getProblem() {
+        String p = lastFailure;
+        if (p == null && !unwatched.isEmpty()) {
+            p = "Not watching " + unwatched.size() + (unwatched.size() == 1 ? " directory" : " directories")
+                    + "; rescanning every " + RETRY_MS / 1000 + " s";
+        }
+        return p;
+    }
+
+    /** Matching entries in {@code order} (either may be null); answered from memory. */
+    @SuppressWarnings("try")
+    public List<Entry> query(Predicate<? super Entry> filter, Comparator<? super Entry> order) {
+        try (Metrics.Scope ignored = QUERY_TIMER.start()) {
+            List<Entry> out = new ArrayList<>(entries.size());
+            for (Entry e : entries.values()) {
+                if (filter == null || filter.test(e)) out.add(e);
+            }
+            if (order != null) out.sort(order);
+            return out;
+        }
+    }
+
+    // ----- keeping current -----
+
+    /** Re-checks the whole tree; returns the number of files (re)parsed. */
+    @SuppressWarnings("try")
+    public synchronized int rescan() throws IOException {
+        try (Metrics.Scope ignored = UPDATE_TIMER.start()) {
+            Map<String, BasicFileAttributes> seen = new HashMap<>();
+            Map<String, BasicFileAttributes> journals = new HashMap<>(); // by project key
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                    Path project = projectFileOf(file);
+                    if (project == file) {
+                        seen.put(key(file), attrs);
+                    } else if (project != null) {
+                        journals.put(key(project), attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            boolean changed = entries.keySet().retainAll(seen.keySet());
+            changed |= unreadable.keySet().retainAll(seen.keySet());
+            List<String> stale = new ArrayList<>();
+            for (Map.Entry<String, BasicFileAttributes> f : seen.entrySet()) {
+                if (isStale(f.getKey(), f.getValue(), journals.get(f.getKey()))) stale.add(f.getKey());
+            }
+
+            if (stale.isEmpty()) {
+                if (changed) committed();
+                return 0;
+            }
+
+            // parse changed files in parallel; the walk above only touched metadata
+            int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), stale.size()));
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "ms-index");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<Boolean>> results = new ArrayList<>(stale.size());
+                for (String k : stale) {
+                    BasicFileAttributes attrs = seen.get(k);
+                    BasicFileAttributes journal = journals.get(k);
+                    results.add(pool.submit(() -> reindex(k, attrs, journal)));
+                }
+                for (Future<Boolean> f : results) changed |= f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Indexing interrupted");
+            } catch (ExecutionException ex) {
+                throw new IOException("Indexing failed: " + ex.getCause(), ex.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+
+            if (changed) committed();
+            return stale.size();
+        }
+    }
+
+    /** Re-checks the given files only (created, modified or deleted .ms files, or their journals). */
+    @SuppressWarnings("try")
+    public synchronized void update(Collection<Path> files) throws IOException {
+        try (Metrics.Scope ignored = UPDATE_TIMER.start()) {
+            boolean changed = false;
+            for (Path file : files) {
+                String k = key(file);
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException ex) {
+                    changed |= unreadable.remove(k) != null;
+                    changed |= entries.remove(k) != null;
+                    continue;
+                }
+                BasicFileAttributes journal = journalAttributes(file);
+                if (attrs.isRegularFile() && isStale(k, attrs, journal)) changed |= reindex(k, attrs, journal);
+            }
+            if (changed) committed();
+        }
+    }
+
+    /** Starts a daemon thread that applies file-system changes under the root as they happen. */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) return;
+        watchService = root.getFileSystem().newWatchService();
+        registerTree(root);
+        watcher = new Thread(this::watchLoop, "ms-index-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher == null) return;
+        watchService.close(); // wakes the watcher with ClosedWatchServiceException
+        watcher.interrupt();
+        watcher = null;
+    }
+
+    // Registers every directory under dir that it can; one that fails goes to unwatched instead
+    // of stopping the walk (or the watcher).
+    private void registerTree(Path dir) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) {
+                    try {
+                        d.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                        unwatched.remove(d);
+                    } catch (IOException ex) {
+                        unwatched.add(d);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            unwatched.add(dir);
+        }
+    }
+
+    private void watchLoop() {
+        WatchService ws = watchService;
+        try {
+            while (true) {
+                WatchKey key = unwatched.isEmpty() ? ws.take() : ws.poll(RETRY_MS, TimeUnit.MILLISECONDS);
+                Set<Path> files = new LinkedHashSet<>();
+                boolean full = false;
+                if (key == null) {
+                    // changes under an unwatched directory raise no events: retry it and rescan
+                    for (Path d : new ArrayList<>(unwatched)) {
+                        unwatched.remove(d);
+                        if (Files.isDirectory(d)) registerTree(d);
+                    }
+                    full = true;
+                }
+                while (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> ev : key.pollEvents()) {
+                        if (ev.kind() == OVERFLOW) {
+                            full = true;
+                            continue;
+                        }
+                        Path p = dir.resolve((Path) ev.context());
+                        Path project = projectFileOf(p);
+                        if (project != null) {
+                            files.add(project);
+                        } else if (ev.kind() == ENTRY_CREATE && Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                            registerTree(p);
+                            full = true; // files may have landed before the new directory was registered
+                        } else if (ev.kind() == ENTRY_DELETE && isIndexedDirectory(p)) {
+                            full = true;
+                        }
+                    }
+                    key.reset();
+                    key = ws.poll(SETTLE_MS, TimeUnit.MILLISECONDS);
+                }
+
+                try {
+                    if (full) {
+                        rescan();
+                    } else if (!files.isEmpty()) {
+                        update(files);
+                    }
+                } catch (IOException ex) {
+                    // the next event (or retry) tries again; meanwhile callers can see what happened
+                    lastFailure = "Update failed: " + ex.getMessage();
+                    for (Runnable l : listeners) l.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    // ----- per file -----
+
+    /**
+     * Reads one file and replays its journal ({@code journal} is null when there is none);
+     * returns true when its entry changed. Unreadable files drop out of the index.
+     */
+    private boolean reindex(String key, BasicFileAttributes attrs, BasicFileAttributes journal) {
+        Path file = root.resolve(key);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException ex) {
+            unreadable.remove(key); // deleted since the walk
+            return entries.remove(key) != null;
+        } catch (IOException ex) {
+            unreadable.put(key, new Unreadable(stat(attrs, journal), "cannot read: " + ex.getMessage()));
+            entries.remove(key);
+            return true; // the entry (if any) goes, and the failure is news either way
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        int hash = (int) crc.getValue();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        long journalMtime = journal != null ? journal.lastModifiedTime().toMillis() : -1;
+        long journalSize = journal != null ? journal.size() : -1;
+
+        // touched but not changed: keep the parsed fields, refresh the stat
+        Entry old = entries.get(key);
+        if (old != null && old.hash() == hash && old.size() == bytes.length
+                && old.journalMtime() == journalMtime && old.journalSize() == journalSize) {
+            entries.put(key, new Entry(key, mtime, bytes.length, hash, journalMtime, journalSize, old.projectName(),
+                    old.creatorName(), old.language(), old.totalWeighted(), old.fp100()));
+            return true;
+        }
+
+        ProjectModel m;
+        try {
+            m = ProjectModel.read(new ByteArrayInputStream(bytes), parsers.get());
+            if (journal != null) ProjectJournal.applyJournal(file, bytes.length, hash, m);
+        } catch (Exception ex) {
+            unreadable.put(key, new Unreadable(stat(attrs, journal), ex.getMessage() != null ? ex.getMessage() : ex.toString()));
+            entries.remove(key);
+            return true;
+        }
+        unreadable.remove(key);
+        ProjectModel.FPState s = m.fpState;
+        String lang = (s != null && s.language != null) ? s.language : m.language;
+        int ufp = s != null ? FunctionPointEngine.totalWeighted(s.counts, s.complexities) : 0;
+        int vafSum = s != null ? FunctionPointEngine.vafSum(s.vafValues) : 0;
+        entries.put(key, new Entry(key, mtime, bytes.length, hash, journalMtime, journalSize, m.projectName,
+                m.creatorName, lang, ufp, FunctionPointEngine.functionPoints100(ufp, vafSum)));
+        return true;
+    }
+
+    private boolean isStale(String key, BasicFileAttributes attrs, BasicFileAttributes journal) {
+        Entry e = entries.get(key);
+        if (e != null) {
+            return e.size() != attrs.size() || e.mtime() != attrs.lastModifiedTime().toMillis()
+                    || e.journalSize() != (journal != null ? journal.size() : -1)
+                    || e.journalMtime() != (journal != null ? journal.lastModifiedTime().toMillis() : -1);
+        }
+        Unreadable u = unreadable.get(key);
+        return u == null || !u.stat().equals(stat(attrs, journal));
+    }
+
+    private static String stat(BasicFileAttributes attrs, BasicFileAttributes journal) {
+        String s = attrs.size() + "@" + attrs.lastModifiedTime().toMillis();
+        return journal == null ? s : s + "+" + journal.size() + "@" + journal.lastModifiedTime().toMillis();
+    }
+
+    private static BasicFileAttributes journalAttributes(Path project) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(ProjectJournal.journalPath(project), BasicFileAttributes.class);
+            return attrs.isRegularFile() ? attrs : null;
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    /** The .ms file {@code p} belongs to: itself, the project of a .ms.journal, or null. */
+    private static Path projectFileOf(Path p) {
+        String name = p.getFileName().toString();
+        String lower = name.toLowerCase();
+        if (lower.endsWith(".ms")) return p;
+        if (lower.endsWith(".ms.journal")) return p.resolveSibling(name.substring(0, name.length() - ".journal".length()));
+        return null;
+    }
+
+    private boolean isIndexedDirectory(Path dir) {
+        String prefix = key(dir) + "/";
+        for (String k : entries.keySet()) {
+            if (k.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private String key(Path file) {
+        return root.relativize(file.toAbsolutePath().normalize()).toString().replace(File.separatorChar, '/');
+    }
+
+    private void committed() {
+        try {
+            save();
+            lastFailure = null;
+        } catch (IOException ex) {
+            lastFailure = "Could not write " + INDEX_FILE + ": " + ex.getMessage();
+        }
+        for (Runnable l : listeners) l.run();
+    }
+
+    // ----- persistence -----
+
+    private void load() {
+        Path file = root.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Entry e = new Entry(readString(in), in.readLong(), in.readLong(), in.readInt(), in.readLong(),
+                        in.readLong(), readString(in), readString(in), readString(in), in.readInt(), in.readLong());
+                entries.put(e.path(), e);
+            }
+        } catch (IOException ex) {
+            // unreadable or truncated: rebuild from the files
+            entries.clear();
+        }
+    }
+
+    private void save() throws IOException {
+        Path file = root.resolve(INDEX_FILE);
+        Path tmp = Files.createTempFile(root, INDEX_FILE, ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)))) {
+                List<Entry> all = new ArrayList<>(entries.values());
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(all.size());
+                for (Entry e : all) {
+                    writeString(out, e.path());
+                    out.writeLong(e.mtime());
+                    out.writeLong(e.size());
+                    out.writeInt(e.hash());
+                    out.writeLong(e.journalMtime());
+                    out.writeLong(e.journalSize());
+                    writeString(out, e.projectName());
+                    writeString(out, e.creatorName());
+                    writeString(out, e.language());
+                    out.writeInt(e.totalWeighted());
+                    out.writeLong(e.fp100());
+                }
+                out.flush();
+                ch.force(true); // data before the rename, or a crash can leave an empty index in place
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // byte length (-1 for null) and UTF-8; writeUTF would cap names and paths at 64 KB
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] utf8 = in.readNBytes(len);
+        if (utf8.length != len) throw new EOFException();
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
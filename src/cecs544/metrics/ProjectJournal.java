@@ -0,0 +1,339 @@
+package cecs544.metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only change log kept next to a .ms snapshot ("name.ms.journal").
+ *
+ * Each save appends only the fields that changed since the last one (absolute values, so replay
+ * is idempotent), checksummed per record and forced to disk. Replay stops at the first torn or
+ * corrupt record, so a crash loses at most the record being written. The header pins the journal
+ * to one snapshot (size + CRC32); a journal left over from an older snapshot is ignored.
+ * Once enough records pile up the log is folded into a fresh snapshot in the background.
+ */
+public class ProjectJournal implements Closeable {
+
+    public static final int COMPACT_THRESHOLD = 512;
+
+    private static final byte[] MAGIC = {'M', 'S', 'J', 1};
+    private static final int HEADER_SIZE = MAGIC.length + 8 + 4;
+
+    // record types
+    private static final int COUNT = 1;
+    private static final int COMPLEXITY = 2;
+    private static final int VAF = 3;
+    private static final int PROJECT_NAME = 4;
+    private static final int CREATOR_NAME = 5;
+    private static final int PROJECT_LANGUAGE = 6;
+    private static final int FP_LANGUAGE = 7;
+    private static final int FP_FORMATTED = 8;
+    private static final int FP_STATE_PRESENT = 9;
+
+    // One io thread shared by every journal: a closed journal's queued writes always finish
+    // before a journal opened after it touches the same files, so close() never has to wait.
+    private static final ExecutorService IO = new ThreadPoolExecutor(0, 1, 5, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "ms-journal");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final Path snapshot;
+    private final Path journal;
+    private final boolean binary;
+
+    // touched only on the io thread
+    private FileChannel channel;
+    private ProjectModel persisted;
+    private int records;
+    private boolean closed;
+
+    private ProjectJournal(Path snapshot, boolean binary, ProjectModel persisted) {
+        this.snapshot = snapshot;
+        this.journal = journalPath(snapshot);
+        this.binary = binary;
+        this.persisted = persisted.copy();
+    }
+
+    public static Path journalPath(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+    }
+
+    /**
+     * Starts journaling {@code snapshot}, whose current on-disk content (snapshot plus any valid
+     * journal) is {@code persisted}. A valid existing journal is continued; anything else is replaced.
+     */
+    public static ProjectJournal open(Path snapshot, boolean binary, ProjectModel persisted) {
+        ProjectJournal j = new ProjectJournal(snapshot, binary, persisted);
+        IO.submit(() -> {
+            j.openChannel();
+            return null;
+        });
+        return j;
+    }
+
+    /** Removes the journal of {@code snapshot}, e.g. after a full rewrite made it obsolete. */
+    public static void discard(Path snapshot) throws IOException {
+        Files.deleteIfExists(journalPath(snapshot));
+    }
+
+    /** Loads the snapshot and replays its journal, if there is a valid one. */
+    public static ProjectModel load(Path snapshot, UnaryOperator<InputStream> wrap) throws IOException {
+        ProjectModel m = ProjectModel.load(snapshot, wrap);
+        applyJournal(snapshot, m);
+        return m;
+    }
+
+    /** Replays the journal of {@code snapshot} onto {@code m}, decoded from that snapshot; no valid journal leaves it as is. */
+    static void applyJournal(Path snapshot, ProjectModel m) throws IOException {
+        if (Files.exists(journalPath(snapshot))) applyJournal(snapshot, Files.size(snapshot), (int) crcOf(snapshot), m);
+    }
+
+    /**
+     * Same, for callers that already hold the snapshot's bytes: {@code size} and {@code crc} (CRC32)
+     * describe the content {@code m} was decoded from. Returns whether a valid journal was applied.
+     */
+    static boolean applyJournal(Path snapshot, long size, int crc, ProjectModel m) throws IOException {
+        try (FileChannel ch = FileChannel.open(journalPath(snapshot), StandardOpenOption.READ)) {
+            if (!headerMatches(ch, size, crc)) return false;
+            replay(ch, m);
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+    }
+
+    /** Appends whatever differs between {@code current} and the persisted state; returns the record count. */
+    public Future<Integer> append(ProjectModel current) {
+        ProjectModel snap = current.copy();
+        return IO.submit(() -> appendNow(snap));
+    }
+
+    /** Folds the journal into a fresh snapshot. */
+    public Future<?> compact() {
+        return IO.submit(() -> {
+            compactNow();
+            return null;
+        });
+    }
+
+    /**
+     * Closes the journal after the appends already queued; later appends fail. Does not block,
+     * so it is safe on the EDT; the future completes once the file is closed.
+     */
+    public Future<?> closeAsync() {
+        return IO.submit(() -> {
+            closed = true;
+            if (channel != null) channel.close();
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        closeAsync();
+    }
+
+    // ----- io thread -----
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (headerMatches(channel, Files.size(snapshot), (int) crcOf(snapshot))) {
+            ProjectModel scratch = ProjectModel.newEmpty(null, null);
+            records = replay(channel, scratch);
+            channel.truncate(channel.position()); // drop a torn tail before appending
+        } else {
+            writeHeader();
+        }
+    }
+
+    private int appendNow(ProjectModel current) throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        if (channel == null) openChannel();
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(buf);
+        int n = diff(persisted, current, out);
+        if (n == 0) return 0;
+
+        ByteBuffer bytes = ByteBuffer.wrap(buf.toByteArray());
+        channel.position(channel.size());
+        while (bytes.hasRemaining()) channel.write(bytes);
+        channel.force(false);
+
+        persisted = current;
+        records += n;
+        if (records >= COMPACT_THRESHOLD) compactNow();
+        return n;
+    }
+
+    private void compactNow() throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        if (channel == null) openChannel();
+        persisted.save(snapshot, binary);
+        writeHeader(); // new snapshot CRC; old records are now part of the snapshot
+    }
+
+    private void writeHeader() throws IOException {
+        long size = Files.size(snapshot);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).putLong(size).putInt((int) crcOf(snapshot)).flip();
+        channel.truncate(0);
+        channel.position(0);
+        while (header.hasRemaining()) channel.write(header);
+        channel.force(true);
+        records = 0;
+    }
+
+    // ----- encoding -----
+
+    private static int diff(ProjectModel was, ProjectModel now, DataOutputStream out) throws IOException {
+        int n = 0;
+        if (!Objects.equals(was.projectName, now.projectName)) n += string(out, PROJECT_NAME, now.projectName);
+        if (!Objects.equals(was.creatorName, now.creatorName)) n += string(out, CREATOR_NAME, now.creatorName);
+        if (!Objects.equals(was.language, now.language)) n += string(out, PROJECT_LANGUAGE, now.language);
+
+        if (now.fpState == null) {
+            if (was.fpState != null) n += number(out, FP_STATE_PRESENT, 0, 0);
+            return n;
+        }
+        ProjectModel.FPState a = was.fpState;
+        if (a == null) {
+            n += number(out, FP_STATE_PRESENT, 0, 1);
+            a = new ProjectModel.FPState();
+        }
+        ProjectModel.FPState b = now.fpState;
+        if (!Objects.equals(a.language, b.language)) n += string(out, FP_LANGUAGE, b.language);
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            if (a.counts[i] != b.counts[i]) n += number(out, COUNT, i, b.counts[i]);
+            if (a.complexities[i] != b.complexities[i]) n += number(out, COMPLEXITY, i, b.complexities[i]);
+        }
+        for (int k = 0; k < FunctionPointEngine.VAF_FACTORS; k++) {
+            if (a.vafValues[k] != b.vafValues[k]) n += number(out, VAF, k, b.vafValues[k]);
+        }
+        if (!Objects.equals(a.fpFormatted, b.fpFormatted)) n += string(out, FP_FORMATTED, b.fpFormatted);
+        return n;
+    }
+
+    private static int number(DataOutputStream out, int type, int index, int value) throws IOException {
+        byte[] payload = ByteBuffer.allocate(5).put((byte) index).putInt(value).array();
+        record(out, type, payload);
+        return 1;
+    }
+
+    private static int string(DataOutputStream out, int type, String value) throws IOException {
+        byte[] utf = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[utf.length + 1];
+        payload[0] = (byte) (value == null ? 0 : 1);
+        System.arraycopy(utf, 0, payload, 1, utf.length);
+        record(out, type, payload);
+        return 1;
+    }
+
+    // [type u8][length u16][payload][crc32 of everything before]
+    private static void record(DataOutputStream out, int type, byte[] payload) throws IOException {
+        if (payload.length > 0xFFFF) throw new IllegalArgumentException("Journal record too large");
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload.length >>> 8);
+        crc.update(payload.length);
+        crc.update(payload);
+        out.writeByte(type);
+        out.writeShort(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+    }
+
+    // ----- replay -----
+
+    private static boolean headerMatches(FileChannel ch, long snapshotSize, int snapshotCrc) throws IOException {
+        if (ch.size() < HEADER_SIZE) return false;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ch.position(0);
+        while (header.hasRemaining() && ch.read(header) > 0) { }
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        return Arrays.equals(magic, MAGIC)
+                && header.getLong() == snapshotSize
+                && header.getInt() == snapshotCrc;
+    }
+
+    /** Applies records from the current position; stops at the first torn/corrupt one, leaving the position there. */
+    private static int replay(FileChannel ch, ProjectModel m) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+        long pos = HEADER_SIZE;
+        int n = 0;
+        while (true) {
+            byte[] payload;
+            int type;
+            try {
+                type = in.readUnsignedByte();
+                int len = in.readUnsignedShort();
+                payload = new byte[len];
+                in.readFully(payload);
+                int stored = in.readInt();
+                CRC32 crc = new CRC32();
+                crc.update(type);
+                crc.update(len >>> 8);
+                crc.update(len);
+                crc.update(payload);
+                if (stored != (int) crc.getValue()) break;
+            } catch (EOFException torn) {
+                break;
+            }
+            apply(m, type, payload);
+            pos += 1 + 2 + payload.length + 4;
+            n++;
+        }
+        ch.position(pos);
+        if (m.fpState != null) {
+            ProjectModel.FPState s = m.fpState;
+            s.totalWeighted = FunctionPointEngine.totalWeighted(s.counts, s.complexities);
+            s.vafSum = FunctionPointEngine.vafSum(s.vafValues);
+        }
+        return n;
+    }
+
+    private static void apply(ProjectModel m, int type, byte[] payload) {
+        ByteBuffer p = ByteBuffer.wrap(payload);
+        String text = (payload.length > 0 && payload[0] == 1)
+                ? new String(payload, 1, payload.length - 1, StandardCharsets.UTF_8) : null;
+        switch (type) {
+            case PROJECT_NAME -> m.projectName = text;
+            case CREATOR_NAME -> m.creatorName = text;
+            case PROJECT_LANGUAGE -> m.language = text;
+            case FP_STATE_PRESENT -> m.fpState = p.getInt(1) != 0 ? fp(m) : null;
+            case FP_LANGUAGE -> fp(m).language = text;
+            case FP_FORMATTED -> fp(m).fpFormatted = text;
+            case COUNT -> fp(m).counts[p.get(0)] = p.getInt(1);
+            case COMPLEXITY -> fp(m).complexities[p.get(0)] = p.getInt(1);
+            case VAF -> fp(m).vafValues[p.get(0)] = p.getInt(1);
+            default -> { } // unknown record from a newer version: skip
+        }
+    }
+
+    private static ProjectModel.FPState fp(ProjectModel m) {
+        if (m.fpState == null) m.fpState = new ProjectModel.FPState();
+        return m.fpState;
+    }
+
+    private static long crcOf(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.read(buf)) > 0; ) crc.update(buf, 0, n);
+        }
+        return crc.getValue();
+    }
+}
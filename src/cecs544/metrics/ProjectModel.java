@@ -1,6 +1,12 @@
 package cecs544.metrics;
 
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 public class ProjectModel {
     public String projectName;
@@ -8,6 +14,11 @@ public class ProjectModel {
     public String language; // current global language (optional)
     public FPState fpState; // Iteration 1 stores just FP state
 
+    private static final Metrics.Timer TO_JSON_TIMER = Metrics.timer("project.toJson");
+    private static final Metrics.Timer FROM_JSON_TIMER = Metrics.timer("project.fromJson");
+    // one parser (and its 8K buffers) per thread for fromJson(String) and load()
+    private static final ThreadLocal<JsonMini.PullParser> PARSER = ThreadLocal.withInitial(() -> JsonMini.newParser(Reader.nullReader()));
+
     public static ProjectModel newEmpty(String projectName, String creatorName) {
         ProjectModel m = new ProjectModel();
         m.projectName = (projectName == null || projectName.isBlank()) ? "Untitled" : projectName;
@@ -17,59 +28,214 @@ public class ProjectModel {
         return m;
     }
 
+    /** Shallow copy; FP states are replaced, never mutated, once handed out by the panel. */
+    public ProjectModel copy() {
+        ProjectModel m = new ProjectModel();
+        m.projectName = projectName;
+        m.creatorName = creatorName;
+        m.language = language;
+        m.fpState = fpState;
+        return m;
+    }
+
+    /** Opens a .ms file, auto-detecting the JSON or binary encoding. */
+    public static ProjectModel load(Path file) throws IOException {
+        return load(file, UnaryOperator.identity());
+    }
+
+    /** Same as {@link #load(Path)}; {@code wrap} may decorate the raw stream (e.g. progress counting). */
+    public static ProjectModel load(Path file, UnaryOperator<InputStream> wrap) throws IOException {
+        try (InputStream in = wrap.apply(Files.newInputStream(file))) {
+            return read(in, PARSER.get());
+        }
+    }
+
+    public void save(Path file, boolean binary) throws IOException {
+        save(file, binary, UnaryOperator.identity());
+    }
+
+    /**
+     * Writes to a temp file next to {@code file}, forces it to disk and renames it into place,
+     * so a crash or cancelled save never leaves a truncated project behind. The temp file is created with the
+     * normal umask and takes over the permissions of the file it replaces.
+     */
+    public void save(Path file, boolean binary, UnaryOperator<OutputStream> wrap) throws IOException {
+        Path tmp = siblingTemp(file);
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 OutputStream out = wrap.apply(Channels.newOutputStream(ch))) {
+                if (binary) {
+                    ProjectBinary.write(this, out);
+                } else {
+                    Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    writeJson(w);
+                }
+                out.flush();
+                ch.force(true); // otherwise the rename can reach the disk before the data does
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Files.createTempFile would make the file owner-only (0600), and the move would carry that over.
+    private static Path siblingTemp(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        String base = "." + file.getFileName() + ".";
+        while (true) {
+            Path tmp = dir.resolve(base + Long.toHexString(System.nanoTime()) + ".tmp");
+            try {
+                Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+            } catch (FileAlreadyExistsException ex) {
+                continue;
+            }
+            try {
+                Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(file));
+            } catch (NoSuchFileException | UnsupportedOperationException ignored) {
+                // new file or no POSIX permissions: keep the umask default
+            } catch (IOException ex) {
+                Files.deleteIfExists(tmp);
+                throw ex;
+            }
+            return tmp;
+        }
+    }
+
+    // Format detection shared by load() and batch readers that recycle their JSON parser.
+    // The parser decodes the stream through its own reused byte/char buffers.
+    static ProjectModel read(InputStream in, JsonMini.PullParser parser) throws IOException {
+        parser.reset(in);
+        try {
+            if (ProjectBinary.isBinary(parser)) {
+                return ProjectBinary.read(parser.remainingBytes());
+            }
+            return read(parser);
+        } finally {
+            parser.release();
+        }
+    }
+
     public String toJson() {
-        Map<String, Object> root = new LinkedHashMap<>();
-        root.put("projectName", projectName);
-        root.put("creatorName", creatorName);
-        root.put("language", language);
+        StringWriter out = new StringWriter();
+        try (Metrics.Scope scope = TO_JSON_TIMER.start()) {
+            writeJson(out);
+            scope.bytes(out.getBuffer().length());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toString();
+    }
 
+    /** Streams the project as JSON to {@code out} (flushed, not closed). */
+    public void writeJson(Writer out) throws IOException {
+        JsonMini.Generator g = JsonMini.newGenerator(out);
+        write(g);
+        g.flush();
+    }
+
+    // Schema-specific encoder: same field order as the original map-based writer.
+    void write(JsonMini.Generator g) throws IOException {
+        g.beginObject();
+        g.name("projectName").value(projectName);
+        g.name("creatorName").value(creatorName);
+        g.name("language").value(language);
+        g.name("fpState");
         if (fpState != null) {
-            root.put("fpState", fpState.toMap());
+            fpState.write(g);
         } else {
-            root.put("fpState", null);
+            g.nullValue();
         }
-
-        return JsonMini.stringify(root);
+        g.endObject();
     }
 
-    @SuppressWarnings("unchecked")
     public static ProjectModel fromJson(String json) {
-        Object parsed = JsonMini.parse(json);
-        if (!(parsed instanceof Map<?, ?> raw)) {
-            throw new IllegalArgumentException("Invalid project file.");
+        JsonMini.PullParser p = PARSER.get();
+        p.reset(new StringReader(json));
+        try {
+            return read(p, json.length());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // cannot happen for a StringReader
+        } finally {
+            p.release();
         }
+    }
 
-        // Convert to Map<String, Object> safely
-        Map<String, Object> map = new LinkedHashMap<>();
-        for (Map.Entry<?, ?> e : raw.entrySet()) {
-            map.put(String.valueOf(e.getKey()), e.getValue());
-        }
+    /** Reads a project straight from a character stream (no intermediate String of the whole file). */
+    public static ProjectModel fromJson(Reader in) throws IOException {
+        return read(JsonMini.newParser(in));
+    }
 
-        ProjectModel m = new ProjectModel();
+    /**
+     * Schema-specific decoder: fills the model fields directly from the token stream,
+     * skipping unknown fields. The parser can be reused across files via {@code reset}.
+     */
+    public static ProjectModel read(JsonMini.PullParser p) throws IOException {
+        return read(p, -1);
+    }
 
-        Object pn = map.get("projectName");
-        m.projectName = (pn instanceof String s && !s.isBlank()) ? s : "Untitled";
+    // Every JSON decode (fromJson, load, the batch readers) passes here, so project.fromJson times them all.
+    private static ProjectModel read(JsonMini.PullParser p, long chars) throws IOException {
+        try (Metrics.Scope scope = FROM_JSON_TIMER.start()) {
+            if (chars >= 0) scope.bytes(chars);
+            return decode(p);
+        }
+    }
 
-        Object cn = map.get("creatorName");
-        m.creatorName = (cn instanceof String s && !s.isBlank()) ? s : "Unknown";
+    private static ProjectModel decode(JsonMini.PullParser p) throws IOException {
+        if (p.next() != JsonMini.Token.START_OBJECT) {
+            throw new IllegalArgumentException("Invalid project file.");
+        }
 
-        Object lang = map.get("language");
-        m.language = (lang instanceof String s && !s.isBlank()) ? s : null;
+        ProjectModel m = new ProjectModel();
+        m.projectName = "Untitled";
+        m.creatorName = "Unknown";
 
-        Object fps = map.get("fpState");
-        if (fps instanceof Map<?, ?> fpRaw) {
-            Map<String, Object> fpMap = new LinkedHashMap<>();
-            for (Map.Entry<?, ?> e : fpRaw.entrySet()) {
-                fpMap.put(String.valueOf(e.getKey()), e.getValue());
+        while (p.next() == JsonMini.Token.FIELD_NAME) {
+            if (p.textEquals("projectName")) {
+                String s = readString(p);
+                m.projectName = (s != null && !s.isBlank()) ? s : "Untitled";
+            } else if (p.textEquals("creatorName")) {
+                String s = readString(p);
+                m.creatorName = (s != null && !s.isBlank()) ? s : "Unknown";
+            } else if (p.textEquals("language")) {
+                String s = readString(p);
+                m.language = (s != null && !s.isBlank()) ? s : null;
+            } else if (p.textEquals("fpState")) {
+                m.fpState = p.next() == JsonMini.Token.START_OBJECT ? FPState.read(p) : skip(p);
+            } else {
+                p.next();
+                p.skipChildren();
             }
-            m.fpState = FPState.fromMap(fpMap);
-        } else {
-            m.fpState = null;
         }
 
+        if (p.next() != JsonMini.Token.END_DOCUMENT) {
+            throw new IllegalArgumentException("Unexpected trailing content");
+        }
         return m;
     }
 
+    // Reads the next value as a string; anything else is skipped and reads as null.
+    private static String readString(JsonMini.PullParser p) throws IOException {
+        if (p.next() == JsonMini.Token.STRING) return p.getText();
+        p.skipChildren();
+        return null;
+    }
+
+    private static int readInt(JsonMini.PullParser p, int fallback) throws IOException {
+        if (p.next() == JsonMini.Token.NUMBER) return p.getInt();
+        p.skipChildren();
+        return fallback;
+    }
+
+    private static <T> T skip(JsonMini.PullParser p) throws IOException {
+        p.skipChildren();
+        return null;
+    }
 
     public static class FPState {
         public String language;
@@ -80,6 +246,71 @@ public class ProjectModel {
         public int vafSum;
         public String fpFormatted;
 
+        void write(JsonMini.Generator g) throws IOException {
+            g.beginObject();
+            g.name("language").value(language);
+            g.name("counts");
+            writeArray(g, counts);
+            g.name("complexities");
+            writeArray(g, complexities);
+            g.name("vafValues");
+            writeArray(g, vafValues);
+            g.name("totalWeighted").value(totalWeighted);
+            g.name("vafSum").value(vafSum);
+            g.name("fpFormatted").value(fpFormatted);
+            g.endObject();
+        }
+
+        /** Decodes an fpState object whose START_OBJECT token has just been read. */
+        static FPState read(JsonMini.PullParser p) throws IOException {
+            FPState s = new FPState();
+            s.fpFormatted = "0.0";
+            while (p.next() == JsonMini.Token.FIELD_NAME) {
+                if (p.textEquals("language")) {
+                    s.language = readString(p);
+                } else if (p.textEquals("counts")) {
+                    readIntArray(p, s.counts);
+                } else if (p.textEquals("complexities")) {
+                    readIntArray(p, s.complexities);
+                } else if (p.textEquals("vafValues")) {
+                    readIntArray(p, s.vafValues);
+                } else if (p.textEquals("totalWeighted")) {
+                    s.totalWeighted = readInt(p, 0);
+                } else if (p.textEquals("vafSum")) {
+                    s.vafSum = readInt(p, 0);
+                } else if (p.textEquals("fpFormatted")) {
+                    s.fpFormatted = readString(p);
+                } else {
+                    p.next();
+                    p.skipChildren();
+                }
+            }
+            return s;
+        }
+
+        private static void writeArray(JsonMini.Generator g, int[] arr) throws IOException {
+            g.beginArray();
+            for (int v : arr) g.value(v);
+            g.endArray();
+        }
+
+        // Fills out[] in place; extra elements are ignored, missing/non-numeric ones read as 0.
+        private static void readIntArray(JsonMini.PullParser p, int[] out) throws IOException {
+            Arrays.fill(out, 0);
+            if (p.next() != JsonMini.Token.START_ARRAY) {
+                p.skipChildren();
+                return;
+            }
+            int i = 0;
+            for (JsonMini.Token t = p.next(); t != JsonMini.Token.END_ARRAY; t = p.next(), i++) {
+                if (t == JsonMini.Token.NUMBER) {
+                    if (i < out.length) out[i] = p.getInt();
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+
         public Map<String, Object> toMap() {
             Map<String, Object> m = new LinkedHashMap<>();
             m.put("language", language);
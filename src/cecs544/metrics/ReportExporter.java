@@ -0,0 +1,283 @@
+package cecs544.metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams per-project results (name, creator, language, the five weighted counts, VAF sum, FP,
+ * LOC) as CSV or a fixed-width text report.
+ *
+ * Rows are encoded straight into one reusable byte buffer that is drained to the channel when
+ * full, so heap use does not grow with the number of projects. FP and LOC are formatted from
+ * exact fixed-point values ({@link FunctionPointEngine#functionPoints100}) without String.format.
+ * Writes are synchronized, so parallel producers can share one exporter.
+ */
+public class ReportExporter implements Closeable {
+
+    public enum Format {
+        CSV, TEXT;
+
+        /** TEXT for .txt / .txt.gz, CSV otherwise. */
+        public static Format forPath(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+            return name.endsWith(".txt") ? TEXT : CSV;
+        }
+    }
+
+    private static final String[] HEADERS = {"Project", "Creator", "Language", "EI", "EO", "EQ", "ILF", "EIF", "VAF Sum", "FP", "LOC"};
+    private static final String[] CSV_HEADERS = {"project", "creator", "language", "ei", "eo", "eq", "ilf", "eif", "vaf_sum", "fp", "loc"};
+    private static final int[] WIDTHS = {32, 20, 12, 8, 8, 8, 8, 8, 8, 12, 12};
+    private static final int BUFFER = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+    private final int[] weighted = new int[FunctionPointEngine.ITEMS];
+    private final byte[] digits = new byte[20];
+
+    private long rows;
+    private long totalFp100;
+    private long totalLoc;
+    private boolean closed;
+
+    public ReportExporter(WritableByteChannel channel, Format format) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        writeHeader();
+    }
+
+    /** Opens (and truncates) {@code file}; with {@code gzip} the stream is compressed as it is written. */
+    public static ReportExporter open(Path file, Format format, boolean gzip) throws IOException {
+        FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            if (!gzip) return new ReportExporter(fc, format);
+            // fastest deflate level: exports are large and mostly digits, which compress well anyway
+            OutputStream gz = new GZIPOutputStream(Channels.newOutputStream(fc), BUFFER) {
+                { def.setLevel(Deflater.BEST_SPEED); }
+            };
+            return new ReportExporter(Channels.newChannel(gz), format);
+        } catch (IOException | RuntimeException ex) {
+            // the GZIP header or our own header failed to write: nothing else will close the file
+            try {
+                fc.close();
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw ex;
+        }
+    }
+
+    public long getRows() { return rows; }
+
+    public void write(ProjectModel m) throws IOException {
+        ProjectModel.FPState s = m.fpState;
+        if (s == null) {
+            write(m.projectName, m.creatorName, m.language, null, null, null);
+        } else {
+            write(m.projectName, m.creatorName, s.language != null ? s.language : m.language,
+                    s.counts, s.complexities, s.vafValues);
+        }
+    }
+
+    /** One project row; null arrays count as an empty FP state. */
+    public synchronized void write(String name, String creator, String language,
+                                   int[] counts, int[] complexities, int[] vafValues) throws IOException {
+        if (closed) throw new IOException("Exporter is closed");
+        int ufp = 0;
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) {
+            weighted[i] = counts == null ? 0 : FunctionPointEngine.weighted(i, counts[i], complexities[i]);
+            ufp += weighted[i];
+        }
+        int vafSum = vafValues == null ? 0 : FunctionPointEngine.vafSum(vafValues);
+        long fp100 = FunctionPointEngine.functionPoints100(ufp, vafSum);
+        long loc = (fp100 * (long) FunctionPointEngine.locPerFp(language) + 50) / 100;
+
+        text(0, name);
+        text(1, creator);
+        text(2, language);
+        for (int i = 0; i < FunctionPointEngine.ITEMS; i++) number(3 + i, weighted[i], -1);
+        number(8, vafSum, -1);
+        number(9, (fp100 + 5) / 10, 1);
+        number(10, loc, -1);
+        put((byte) '\n');
+
+        rows++;
+        totalFp100 += fp100;
+        totalLoc += loc;
+    }
+
+    // ----- encoding -----
+
+    private void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            for (int c = 0; c < CSV_HEADERS.length; c++) {
+                if (c > 0) put((byte) ',');
+                ascii(CSV_HEADERS[c]);
+            }
+            put((byte) '\n');
+            return;
+        }
+        for (int c = 0; c < HEADERS.length; c++) {
+            if (c < 3) {
+                ascii(HEADERS[c]);
+                pad(WIDTHS[c] - HEADERS[c].length());
+            } else {
+                pad(WIDTHS[c] - HEADERS[c].length());
+                ascii(HEADERS[c]);
+            }
+        }
+        put((byte) '\n');
+        rule();
+    }
+
+    private void rule() throws IOException {
+        int width = 0;
+        for (int w : WIDTHS) width += w;
+        for (int i = 0; i < width; i++) put((byte) '-');
+        put((byte) '\n');
+    }
+
+    private void text(int column, String s) throws IOException {
+        if (s == null) s = "";
+        if (format == Format.CSV) {
+            if (column > 0) put((byte) ',');
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char ch = s.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                utf8(s, s.length());
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                if (ch == '"') put((byte) '"');
+                i += utf8Char(s, i) - 1;
+            }
+            put((byte) '"');
+            return;
+        }
+        // fixed width: left-aligned, cut to fit with one space of separation
+        int width = WIDTHS[column] - 1;
+        int n = 0, end = 0;
+        while (end < s.length() && n < width) {
+            char ch = s.charAt(end);
+            end += Character.isHighSurrogate(ch) && end + 1 < s.length() ? 2 : 1;
+            n++;
+        }
+        utf8(s, end);
+        pad(WIDTHS[column] - n);
+    }
+
+    /** {@code decimals} 1 prints value/10 with one decimal; -1 prints the value as is. */
+    private void number(int column, long value, int decimals) throws IOException {
+        boolean neg = value < 0;
+        long v = Math.abs(value);
+        int p = digits.length;
+        if (decimals == 1) {
+            digits[--p] = (byte) ('0' + v % 10);
+            digits[--p] = '.';
+            v /= 10;
+        }
+        do {
+            digits[--p] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0);
+        if (neg) digits[--p] = '-';
+        int len = digits.length - p;
+
+        if (format == Format.CSV) {
+            put((byte) ',');
+        } else {
+            pad(WIDTHS[column] - len);
+        }
+        if (buf.remaining() < len) drain();
+        buf.put(digits, p, len);
+    }
+
+    private void ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) put((byte) s.charAt(i));
+    }
+
+    private void utf8(String s, int end) throws IOException {
+        for (int i = 0; i < end; i++) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) {
+                put((byte) ch);
+            } else {
+                i += utf8Char(s, i) - 1;
+            }
+        }
+    }
+
+    /** Encodes the code point at {@code i}; returns the number of chars it used. */
+    private int utf8Char(String s, int i) throws IOException {
+        int cp = s.codePointAt(i);
+        if (buf.remaining() < 4) drain();
+        if (cp < 0x80) {
+            buf.put((byte) cp);
+        } else if (cp < 0x800) {
+            buf.put((byte) (0xC0 | cp >> 6)).put((byte) (0x80 | cp & 0x3F));
+        } else if (cp < 0x10000) {
+            if (Character.isSurrogate((char) cp)) {
+                buf.put((byte) '?'); // lone surrogate
+            } else {
+                buf.put((byte) (0xE0 | cp >> 12)).put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            }
+        } else {
+            buf.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                    .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+        }
+        return Character.charCount(cp);
+    }
+
+    private void pad(int n) throws IOException {
+        for (int i = 0; i < n; i++) put((byte) ' ');
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buf.hasRemaining()) drain();
+        buf.put(b);
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    /** Writes the totals line (text reports), flushes and closes the channel. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (format == Format.TEXT) {
+                rule();
+                String label = String.format("Total (%,d projects)", rows);
+                ascii(label);
+                int used = label.length();
+                int before = 0;
+                for (int c = 0; c < 9; c++) before += WIDTHS[c];
+                pad(Math.max(before - used, 1));
+                number(9, (totalFp100 + 5) / 10, 1);
+                number(10, totalLoc, -1);
+                put((byte) '\n');
+            }
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
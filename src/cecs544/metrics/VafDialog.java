@@ -5,11 +5,15 @@ import java.awt.*;
 
 public class VafDialog extends JDialog {
 
+    // one instance per frame, kept as a client property of the frame's root pane;
+    // hidden on OK/Cancel and reset before each showing
+    private static final Object CACHE_KEY = VafDialog.class;
+
     private boolean ok = false;
     private final JComboBox<Integer>[] combos = new JComboBox[14];
 
     // Generic labels (you can replace with the exact GSC names if your doc lists them)
-    private static final String[] FACTORS = {
+    static final String[] FACTORS = {
             "Data communications",
             "Distributed data processing",
             "Performance",
@@ -26,10 +30,24 @@ public class VafDialog extends JDialog {
             "Facilitate change"
     };
 
+    /** Shared dialog for {@code owner}, reset to {@code currentValues}; built on first use. */
+    public static VafDialog forOwner(JFrame owner, int[] currentValues) {
+        VafDialog dlg = owner != null ? (VafDialog) owner.getRootPane().getClientProperty(CACHE_KEY) : null;
+        if (dlg == null) {
+            dlg = new VafDialog(owner, currentValues);
+            if (owner != null) owner.getRootPane().putClientProperty(CACHE_KEY, dlg);
+        } else {
+            dlg.reset(currentValues);
+        }
+        dlg.setLocationRelativeTo(owner);
+        return dlg;
+    }
+
     public VafDialog(JFrame owner, int[] currentValues) {
         super(owner, "Value Adjustment Factors (0-5)", true);
         setSize(520, 420);
         setLocationRelativeTo(owner);
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
 
         JPanel grid = new JPanel(new GridBagLayout());
         GridBagConstraints g = new GridBagConstraints();
@@ -47,15 +65,14 @@ public class VafDialog extends JDialog {
             g.gridx = 1;
             g.weightx = 0.0;
             JComboBox<Integer> cb = new JComboBox<>(values);
-            cb.setSelectedItem((currentValues != null && currentValues.length == 14) ? currentValues[i] : 0);
             combos[i] = cb;
             grid.add(cb, g);
         }
 
         JButton okBtn = new JButton("OK");
         JButton cancelBtn = new JButton("Cancel");
-        okBtn.addActionListener(e -> { ok = true; dispose(); });
-        cancelBtn.addActionListener(e -> dispose());
+        okBtn.addActionListener(e -> { ok = true; setVisible(false); });
+        cancelBtn.addActionListener(e -> setVisible(false));
 
         JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         btns.add(cancelBtn);
@@ -64,6 +81,20 @@ public class VafDialog extends JDialog {
         setLayout(new BorderLayout(10,10));
         add(new JScrollPane(grid), BorderLayout.CENTER);
         add(btns, BorderLayout.SOUTH);
+
+        reset(currentValues);
+    }
+
+    /**
+     * Puts the dialog back in its just-opened state showing {@code currentValues}; values outside
+     * 0-5 (e.g. from a hand-edited file) show as the nearest valid one instead of the last selection.
+     */
+    public void reset(int[] currentValues) {
+        ok = false;
+        for (int i = 0; i < 14; i++) {
+            int v = (currentValues != null && currentValues.length == 14) ? currentValues[i] : 0;
+            combos[i].setSelectedItem(Math.min(Math.max(v, 0), 5));
+        }
     }
 
     public boolean isOk() {